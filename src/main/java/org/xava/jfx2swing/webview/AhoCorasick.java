@@ -0,0 +1,176 @@
+package org.xava.jfx2swing.webview;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton finding occurrences of many literal patterns in a
+ * text in a single pass, regardless of the number of patterns.
+ * <p>
+ * The automaton is immutable once built and may be shared between threads.
+ *
+ * @author Alaa Sarhan
+ */
+final class AhoCorasick {
+
+    /**
+     * Receives the patterns found in a text.
+     */
+    interface Hit {
+
+        /**
+         * Called for every occurrence of a pattern.
+         *
+         * @param pattern The index of the found pattern.
+         * @return true to stop searching, false to continue.
+         */
+        boolean found(int pattern);
+    }
+
+    private static final int[] NONE = new int[0];
+
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    /**
+     * Builds the automaton of the given patterns. Empty patterns are ignored.
+     *
+     * @param patterns The patterns, identified by their index in the list.
+     */
+    AhoCorasick(List<String> patterns) {
+        List<TreeMap<Character, Integer>> children
+                = new ArrayList<TreeMap<Character, Integer>>();
+        List<List<Integer>> own = new ArrayList<List<Integer>>();
+
+        children.add(new TreeMap<Character, Integer>());
+        own.add(new ArrayList<Integer>());
+
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+
+            if (pattern.isEmpty()) {
+                continue;
+            }
+
+            int state = 0;
+
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = children.get(state).get(pattern.charAt(i));
+
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<Character, Integer>());
+                    own.add(new ArrayList<Integer>());
+                    children.get(state).put(pattern.charAt(i), next);
+                }
+
+                state = next;
+            }
+
+            own.get(state).add(p);
+        }
+
+        int size = children.size();
+
+        labels = new char[size][];
+        targets = new int[size][];
+        fail = new int[size];
+        outputs = new int[size][];
+
+        for (int s = 0; s < size; s++) {
+            Map<Character, Integer> map = children.get(s);
+            labels[s] = new char[map.size()];
+            targets[s] = new int[map.size()];
+
+            int i = 0;
+            for (Map.Entry<Character, Integer> entry : map.entrySet()) {
+                labels[s][i] = entry.getKey();
+                targets[s][i] = entry.getValue();
+                i++;
+            }
+        }
+
+        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        outputs[0] = toArray(own.get(0), NONE);
+
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            outputs[child] = toArray(own.get(child), outputs[0]);
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+
+            for (int i = 0; i < labels[state].length; i++) {
+                int child = targets[state][i];
+
+                fail[child] = next(fail[state], labels[state][i]);
+                outputs[child] = toArray(own.get(child),
+                        outputs[fail[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Searches the given text, reporting every pattern occurrence until the
+     * callback asks to stop.
+     *
+     * @param text The text to search.
+     * @param hit The callback receiving the found patterns.
+     * @return true if the callback stopped the search, false otherwise.
+     */
+    boolean search(CharSequence text, Hit hit) {
+        int state = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+
+            for (int pattern : outputs[state]) {
+                if (hit.found(pattern)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int i = Arrays.binarySearch(labels[state], c);
+
+            if (i >= 0) {
+                return targets[state][i];
+            }
+
+            if (state == 0) {
+                return 0;
+            }
+
+            state = fail[state];
+        }
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) {
+            return inherited;
+        }
+
+        int[] result = new int[own.size() + inherited.length];
+
+        for (int i = 0; i < own.size(); i++) {
+            result[i] = own.get(i);
+        }
+        System.arraycopy(inherited, 0, result, own.size(), inherited.length);
+
+        return result;
+    }
+}
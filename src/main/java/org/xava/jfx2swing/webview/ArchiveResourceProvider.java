@@ -0,0 +1,244 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * A {@link ResourceProvider} serving the entries of a memory-mapped zip
+ * archive (zip, jar, ...).
+ * <p>
+ * The archive is mapped into memory once and its central directory is
+ * indexed on construction. Stored entries are then served as views of the
+ * mapping and deflated entries are inflated while being streamed, so no entry
+ * is extracted to disk or held on the Java heap.
+ * <p>
+ * Zip64 archives, archives larger than 2GB and encrypted entries are not
+ * supported; encrypted entries are skipped.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class ArchiveResourceProvider implements ResourceProvider {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_HEADER = 0x06054b50;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int ENCRYPTED = 1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer archive;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    /**
+     * Maps the given archive and indexes all its entries.
+     *
+     * @param file The archive file.
+     * @throws IOException if the file cannot be mapped or is not a valid zip
+     * archive.
+     */
+    public ArchiveResourceProvider(File file) throws IOException {
+        this(file, "");
+    }
+
+    /**
+     * Maps the given archive and indexes the entries under the given root
+     * directory.
+     *
+     * @param file The archive file.
+     * @param root The directory within the archive to serve, e.g. "web". An
+     * empty string serves the whole archive.
+     * @throws IOException if the file cannot be mapped or is not a valid zip
+     * archive.
+     */
+    public ArchiveResourceProvider(File file, String root) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer mapped = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            this.archive = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        String prefix = ResourceProtocol.normalizePath(root);
+
+        if (prefix == null) {
+            throw new IllegalArgumentException("Invalid root: " + root);
+        }
+
+        index(prefix.isEmpty() ? "" : prefix + "/");
+    }
+
+    @Override
+    public Resource getResource(String path) throws IOException {
+        final Entry entry = entries.get(path);
+
+        if (entry == null) {
+            return null;
+        }
+
+        final ByteBuffer data = data(entry);
+
+        return new Resource(null, entry.size, entry.lastModified) {
+            @Override
+            public InputStream openStream() {
+                InputStream raw = new ByteBufferInputStream(data);
+
+                if (entry.method == STORED) {
+                    return raw;
+                }
+
+                final Inflater inflater = new Inflater(true);
+
+                return new InflaterInputStream(raw, inflater) {
+                    private boolean closed = false;
+
+                    @Override
+                    public void close() throws IOException {
+                        if (!closed) {
+                            closed = true;
+                            inflater.end();
+                        }
+                        super.close();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Reads the central directory and records the served entries.
+     */
+    private void index(String prefix) throws IOException {
+        int end = findEndHeader();
+        int count = archive.getShort(end + 10) & 0xFFFF;
+        int offset = archive.getInt(end + 16);
+
+        for (int i = 0; i < count; i++) {
+            if (offset < 0 || offset + 46 > archive.limit()
+                    || archive.getInt(offset) != CENTRAL_HEADER) {
+                throw new ZipException("Invalid central directory");
+            }
+
+            int flags = archive.getShort(offset + 8) & 0xFFFF;
+            int method = archive.getShort(offset + 10) & 0xFFFF;
+            int dosTime = archive.getInt(offset + 12);
+            long compressedSize = archive.getInt(offset + 20) & 0xFFFFFFFFL;
+            long size = archive.getInt(offset + 24) & 0xFFFFFFFFL;
+            int nameLength = archive.getShort(offset + 28) & 0xFFFF;
+            int extraLength = archive.getShort(offset + 30) & 0xFFFF;
+            int commentLength = archive.getShort(offset + 32) & 0xFFFF;
+            long headerOffset = archive.getInt(offset + 42) & 0xFFFFFFFFL;
+
+            if (offset + 46 + nameLength > archive.limit()) {
+                throw new ZipException("Invalid central directory");
+            }
+
+            byte[] nameBytes = new byte[nameLength];
+            ByteBuffer nameBuffer = archive.duplicate();
+            nameBuffer.position(offset + 46);
+            nameBuffer.get(nameBytes);
+            String name = new String(nameBytes, UTF8);
+
+            // Encrypted entries cannot be served, their data is unreadable.
+            if (name.startsWith(prefix) && !name.endsWith("/")
+                    && (flags & ENCRYPTED) == 0
+                    && (method == STORED || method == DEFLATED)) {
+                entries.put(name.substring(prefix.length()),
+                        new Entry(method, compressedSize, size,
+                                headerOffset, dosToJavaTime(dosTime)));
+            }
+
+            offset += 46 + nameLength + extraLength + commentLength;
+        }
+    }
+
+    private int findEndHeader() throws ZipException {
+        int lowest = Math.max(0, archive.limit() - END_HEADER_SIZE - 0xFFFF);
+
+        for (int i = archive.limit() - END_HEADER_SIZE; i >= lowest; i--) {
+            if (archive.getInt(i) == END_HEADER) {
+                return i;
+            }
+        }
+
+        throw new ZipException("Not a zip archive");
+    }
+
+    /**
+     * Gets a view of the (possibly compressed) data of an entry.
+     */
+    private ByteBuffer data(Entry entry) throws ZipException {
+        int header = (int) entry.headerOffset;
+
+        if (entry.headerOffset + 30 > archive.limit()
+                || archive.getInt(header) != LOCAL_HEADER) {
+            throw new ZipException("Invalid local header");
+        }
+
+        int nameLength = archive.getShort(header + 26) & 0xFFFF;
+        int extraLength = archive.getShort(header + 28) & 0xFFFF;
+        long start = entry.headerOffset + 30 + nameLength + extraLength;
+
+        if (start + entry.compressedSize > archive.limit()) {
+            throw new ZipException("Truncated entry");
+        }
+
+        ByteBuffer data = archive.duplicate();
+        data.position((int) start);
+        data.limit((int) (start + entry.compressedSize));
+
+        return data.slice();
+    }
+
+    private static long dosToJavaTime(int dosTime) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(((dosTime >> 25) & 0x7F) + 1980,
+                ((dosTime >> 21) & 0x0F) - 1,
+                (dosTime >> 16) & 0x1F,
+                (dosTime >> 11) & 0x1F,
+                (dosTime >> 5) & 0x3F,
+                (dosTime << 1) & 0x3E);
+
+        return calendar.getTimeInMillis();
+    }
+
+    private static final class Entry {
+
+        private final int method;
+        private final long compressedSize;
+        private final long size;
+        private final long headerOffset;
+        private final long lastModified;
+
+        private Entry(int method, long compressedSize, long size,
+                long headerOffset, long lastModified) {
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.headerOffset = headerOffset;
+            this.lastModified = lastModified;
+        }
+    }
+}
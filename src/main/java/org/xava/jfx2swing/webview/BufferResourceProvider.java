@@ -0,0 +1,87 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ResourceProvider} serving resources registered as ByteBuffers.
+ * <p>
+ * The buffers are served as they are, without being copied, so direct and
+ * memory-mapped buffers stay off the Java heap. The provider keeps a
+ * read-only view of the remaining content of each registered buffer; changing
+ * the buffer's position or limit afterwards does not affect what is served.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class BufferResourceProvider implements ResourceProvider {
+
+    private final Map<String, Resource> resources
+            = new ConcurrentHashMap<String, Resource>();
+
+    /**
+     * Registers the content of a buffer under the given path. The MIME type is
+     * guessed from the path.
+     *
+     * @param path The path to serve the content at.
+     * @param buffer The content.
+     */
+    public void put(String path, ByteBuffer buffer) {
+        put(path, buffer, null);
+    }
+
+    /**
+     * Registers the content of a buffer under the given path.
+     *
+     * @param path The path to serve the content at.
+     * @param buffer The content.
+     * @param contentType The MIME type of the content, or null to guess it
+     * from the path.
+     */
+    public void put(String path, ByteBuffer buffer, String contentType) {
+        String normalized = ResourceProtocol.normalizePath(path);
+
+        if (normalized == null || normalized.isEmpty()) {
+            throw new IllegalArgumentException("Invalid resource path: "
+                    + path);
+        }
+
+        final ByteBuffer content = buffer.slice().asReadOnlyBuffer();
+
+        resources.put(normalized, new Resource(contentType,
+                content.remaining(), System.currentTimeMillis()) {
+                    @Override
+                    public InputStream openStream() {
+                        return new ByteBufferInputStream(content);
+                    }
+                });
+    }
+
+    /**
+     * Removes the content registered under the given path.
+     *
+     * @param path The path to remove.
+     */
+    public void remove(String path) {
+        String normalized = ResourceProtocol.normalizePath(path);
+
+        if (normalized != null) {
+            resources.remove(normalized);
+        }
+    }
+
+    /**
+     * Removes all the registered content.
+     */
+    public void clear() {
+        resources.clear();
+    }
+
+    @Override
+    public Resource getResource(String path) {
+        return resources.get(path);
+    }
+}
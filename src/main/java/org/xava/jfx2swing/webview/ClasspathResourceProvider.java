@@ -0,0 +1,111 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.jar.JarEntry;
+
+/**
+ * A {@link ResourceProvider} serving resources from the class-path.
+ * <p>
+ * Resources are looked up by a ClassLoader under a root package, so that
+ * <code>jfx2swing-res://app/css/main.css</code> maps to, for instance, the
+ * class-path entry <code>com/example/web/css/main.css</code>. Resources packed
+ * in jars are streamed straight out of the jar.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class ClasspathResourceProvider implements ResourceProvider {
+
+    private final ClassLoader classLoader;
+    private final String root;
+
+    /**
+     * Creates a provider serving the class-path resources under the given
+     * root.
+     *
+     * @param classLoader The ClassLoader to look resources up with.
+     * @param root The root resource path, e.g. "com/example/web". An empty
+     * string serves the whole class-path.
+     */
+    public ClasspathResourceProvider(ClassLoader classLoader, String root) {
+        if (classLoader == null || root == null) {
+            throw new NullPointerException();
+        }
+
+        while (root.startsWith("/")) {
+            root = root.substring(1);
+        }
+
+        if (!root.isEmpty() && !root.endsWith("/")) {
+            root = root + "/";
+        }
+
+        this.classLoader = classLoader;
+        this.root = root;
+    }
+
+    /**
+     * Creates a provider serving the class-path resources of the package of
+     * the given class.
+     *
+     * @param anchor A class in the package to serve resources from.
+     */
+    public ClasspathResourceProvider(Class<?> anchor) {
+        this(anchor.getClassLoader(),
+                anchor.getPackage() == null ? ""
+                : anchor.getPackage().getName().replace('.', '/'));
+    }
+
+    @Override
+    public Resource getResource(String path) throws IOException {
+        final URL url = classLoader.getResource(root + path);
+
+        if (url == null || path.isEmpty()) {
+            return null;
+        }
+
+        long length = -1;
+        long lastModified = 0;
+
+        if ("file".equals(url.getProtocol())) {
+            try {
+                File file = new File(url.toURI());
+
+                if (file.isDirectory()) {
+                    return null;
+                }
+
+                length = file.length();
+                lastModified = file.lastModified();
+            } catch (URISyntaxException ex) {
+                // Leave the metadata unknown.
+            }
+        } else if ("jar".equals(url.getProtocol())) {
+            URLConnection connection = url.openConnection();
+            JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+
+            if (entry != null) {
+                if (entry.isDirectory()) {
+                    return null;
+                }
+
+                length = entry.getSize();
+                lastModified = Math.max(0, entry.getTime());
+            }
+        }
+
+        return new Resource(null, length, lastModified) {
+            @Override
+            public InputStream openStream() throws IOException {
+                return url.openStream();
+            }
+        };
+    }
+}
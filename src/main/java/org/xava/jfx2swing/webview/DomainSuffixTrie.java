@@ -0,0 +1,84 @@
+package org.xava.jfx2swing.webview;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trie of domain names keyed by their labels from right to left, matching a
+ * host name against many domain suffixes in time proportional to the number
+ * of labels of the host.
+ * <p>
+ * A domain matches itself and all its sub-domains: "example.com" matches
+ * "example.com" and "ads.example.com", but not "badexample.com".
+ *
+ * @author Alaa Sarhan
+ */
+final class DomainSuffixTrie {
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<String, Node>();
+        private boolean terminal = false;
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Adds a domain to the trie.
+     *
+     * @param domain The lower-cased domain name.
+     */
+    void add(String domain) {
+        String[] labels = domain.split("\\.");
+        Node node = root;
+
+        for (int i = labels.length - 1; i >= 0; i--) {
+            if (labels[i].isEmpty()) {
+                continue;
+            }
+
+            Node child = node.children.get(labels[i]);
+
+            if (child == null) {
+                child = new Node();
+                node.children.put(labels[i], child);
+            }
+
+            node = child;
+        }
+
+        if (node != root) {
+            node.terminal = true;
+        }
+    }
+
+    /**
+     * Gets whether the given host is one of the domains of the trie or a
+     * sub-domain of one.
+     *
+     * @param host The lower-cased host name.
+     * @return true if the host matches a domain.
+     */
+    boolean matches(String host) {
+        Node node = root;
+        int end = host.length();
+
+        while (end > 0) {
+            int start = host.lastIndexOf('.', end - 1) + 1;
+
+            node = node.children.get(host.substring(start, end));
+
+            if (node == null) {
+                return false;
+            }
+
+            if (node.terminal) {
+                return true;
+            }
+
+            end = start - 1;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+package org.xava.jfx2swing.webview;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLStreamHandler;
+import java.net.URLStreamHandlerFactory;
+
+/**
+ * The URL stream handler factory installed for the WebEngine.
+ * <p>
+ * Java allows only one factory per JVM, so this factory is installed once,
+ * on demand, and serves every custom protocol of this library. Once a request
+ * filter has been set, it also wraps the http and https handlers to apply the
+ * {@link RequestFiltering} filter. Other protocols, and http and https while
+ * no filter was ever set, fall back to the default JDK handlers.
+ *
+ * @author Alaa Sarhan
+ */
+final class EngineURLStreamHandlerFactory implements URLStreamHandlerFactory {
+
+    private static EngineURLStreamHandlerFactory installed = null;
+
+    private final URLStreamHandler resourceHandler
+            = new ResourceProtocol.Handler();
+    private final URLStreamHandler httpHandler;
+    private final URLStreamHandler httpsHandler;
+    private boolean httpFiltering = false;
+    private boolean httpResolvedUnfiltered = false;
+
+    private EngineURLStreamHandlerFactory() throws MalformedURLException {
+        httpHandler = new RequestFiltering.Handler("http", 80);
+        httpsHandler = new RequestFiltering.Handler("https", 443);
+    }
+
+    /**
+     * Installs the factory into <code>java.net.URL</code> if it has not been
+     * installed yet. The http and https handlers are left to the JDK.
+     *
+     * @throws IllegalStateException if another factory has already been
+     * installed by the application.
+     */
+    static synchronized void install() {
+        if (installed != null) {
+            return;
+        }
+
+        EngineURLStreamHandlerFactory factory;
+
+        try {
+            factory = new EngineURLStreamHandlerFactory();
+        } catch (MalformedURLException ex) {
+            throw new IllegalStateException(
+                    "The default http handlers are not available.", ex);
+        }
+
+        try {
+            URL.setURLStreamHandlerFactory(factory);
+        } catch (Error ex) {
+            throw new IllegalStateException(
+                    "A URLStreamHandlerFactory is already installed.", ex);
+        }
+
+        installed = factory;
+    }
+
+    /**
+     * Installs the factory if needed and makes it wrap the http and https
+     * handlers with the request filtering handlers.
+     *
+     * @throws IllegalStateException if another factory has already been
+     * installed by the application, or if the default http or https handler
+     * was already resolved through this factory.
+     */
+    static synchronized void installHttpFiltering() {
+        install();
+
+        if (installed.httpResolvedUnfiltered) {
+            throw new IllegalStateException("http URLs were used before the"
+                    + " request filter was set; set it earlier.");
+        }
+
+        installed.httpFiltering = true;
+    }
+
+    @Override
+    public URLStreamHandler createURLStreamHandler(String protocol) {
+        if (ResourceProtocol.SCHEME.equalsIgnoreCase(protocol)) {
+            return resourceHandler;
+        }
+
+        boolean http = "http".equalsIgnoreCase(protocol);
+
+        if (!http && !"https".equalsIgnoreCase(protocol)) {
+            return null;
+        }
+
+        synchronized (EngineURLStreamHandlerFactory.class) {
+            if (!httpFiltering) {
+                httpResolvedUnfiltered = true;
+                return null;
+            }
+        }
+
+        return http ? httpHandler : httpsHandler;
+    }
+}
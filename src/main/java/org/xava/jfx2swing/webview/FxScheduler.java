@@ -0,0 +1,424 @@
+package org.xava.jfx2swing.webview;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+
+/**
+ * A priority-aware scheduler placed in front of the JavaFX Thread dispatch.
+ * <p>
+ * Work submitted to this scheduler is kept in one queue per
+ * {@link Priority} lane instead of going straight into the single FIFO queue
+ * of <code>Platform.runLater</code>. At most one drain task is pending on the
+ * JavaFX Thread at a time; each drain runs queued work, highest priority
+ * first, until its time slice budget is spent and then yields the JavaFX
+ * Thread back to rendering and input before continuing with the rest.
+ * <p>
+ * Lower priority lanes are protected against starvation: once the oldest task
+ * of any lane has waited longer than the starvation threshold, it is run ahead
+ * of higher priority work.
+ * <p>
+ * Queued work can be cancelled through the {@link Task} returned on
+ * submission. If the work is a {@link Future}, such as a FutureTask, it is
+ * cancelled too, so that the threads waiting for it are released. Queue depth
+ * and wait times are tracked per lane.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public final class FxScheduler {
+
+    /**
+     * The priority lanes of the scheduler, from the most to the least urgent.
+     */
+    public enum Priority {
+
+        /**
+         * Urgent work queued by the application, run ahead of the calls of
+         * the component.
+         */
+        INTERACTIVE,
+        /**
+         * Regular API calls, run in the order they were made.
+         */
+        NORMAL,
+        /**
+         * Bulk or speculative work that may wait.
+         */
+        BACKGROUND
+    }
+
+    /**
+     * A unit of work queued in the scheduler.
+     */
+    public static final class Task {
+
+        private final Runnable runnable;
+        private final Priority priority;
+        private final long submittedNanos;
+        private final FxScheduler scheduler;
+        private volatile boolean cancelled = false;
+
+        private Task(FxScheduler scheduler, Priority priority,
+                Runnable runnable) {
+            this.scheduler = scheduler;
+            this.priority = priority;
+            this.runnable = runnable;
+            this.submittedNanos = System.nanoTime();
+        }
+
+        /**
+         * Gets the lane this task was submitted to.
+         *
+         * @return The priority of the task.
+         */
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Removes this task from its queue if it has not been run yet.
+         *
+         * @return true if the task was still queued and is now cancelled,
+         * false if it has already been run or cancelled.
+         */
+        public boolean cancel() {
+            return scheduler.cancel(this);
+        }
+
+        /**
+         * Gets whether this task has been cancelled.
+         *
+         * @return true if the task was cancelled before being run.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final int LANES = Priority.values().length;
+    private static final Logger LOGGER
+            = Logger.getLogger(FxScheduler.class.getName());
+
+    private final Object lock = new Object();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Task>[] queues = new ArrayDeque[LANES];
+    private final long[] executed = new long[LANES];
+    private final long[] totalWaitNanos = new long[LANES];
+    private final long[] maxWaitNanos = new long[LANES];
+    private boolean drainScheduled = false;
+    private volatile long sliceBudgetNanos = 8000000L;
+    private volatile long starvationThresholdNanos = 250000000L;
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * Creates a scheduler with an 8 milliseconds time slice budget and a 250
+     * milliseconds starvation threshold.
+     */
+    public FxScheduler() {
+        for (int i = 0; i < LANES; i++) {
+            queues[i] = new ArrayDeque<Task>();
+        }
+    }
+
+    /**
+     * Queues the given work to be run on the JavaFX Thread.
+     *
+     * @param priority The lane to queue the work in.
+     * @param runnable The work to run.
+     * @return The queued task, which can be used to cancel the work.
+     */
+    public Task submit(Priority priority, Runnable runnable) {
+        if (priority == null || runnable == null) {
+            throw new NullPointerException();
+        }
+
+        Task task = new Task(this, priority, runnable);
+        boolean scheduleDrain;
+
+        synchronized (lock) {
+            queues[priority.ordinal()].addLast(task);
+            scheduleDrain = !drainScheduled;
+            drainScheduled = true;
+        }
+
+        if (scheduleDrain) {
+            Platform.runLater(drain);
+        }
+
+        return task;
+    }
+
+    /**
+     * Cancels all the work that is still queued in the given lane.
+     *
+     * @param priority The lane to clear.
+     * @return The number of cancelled tasks.
+     */
+    public int cancelAll(Priority priority) {
+        List<Task> cancelled;
+
+        synchronized (lock) {
+            ArrayDeque<Task> queue = queues[priority.ordinal()];
+            cancelled = new ArrayList<Task>(queue);
+
+            for (Task task : queue) {
+                task.cancelled = true;
+            }
+            queue.clear();
+        }
+
+        for (Task task : cancelled) {
+            cancelFuture(task);
+        }
+
+        return cancelled.size();
+    }
+
+    /**
+     * Gets the number of tasks waiting in the given lane.
+     *
+     * @param priority The lane.
+     * @return The queue depth.
+     */
+    public int getQueueDepth(Priority priority) {
+        synchronized (lock) {
+            return queues[priority.ordinal()].size();
+        }
+    }
+
+    /**
+     * Gets the number of tasks run from the given lane since the statistics
+     * were last reset.
+     *
+     * @param priority The lane.
+     * @return The number of executed tasks.
+     */
+    public long getExecutedCount(Priority priority) {
+        synchronized (lock) {
+            return executed[priority.ordinal()];
+        }
+    }
+
+    /**
+     * Gets the average time tasks of the given lane waited in the queue
+     * before being run.
+     *
+     * @param priority The lane.
+     * @return The average wait time, in milliseconds.
+     */
+    public double getAverageWaitMillis(Priority priority) {
+        synchronized (lock) {
+            int lane = priority.ordinal();
+
+            if (executed[lane] == 0) {
+                return 0;
+            }
+
+            return totalWaitNanos[lane] / (double) executed[lane] / 1000000d;
+        }
+    }
+
+    /**
+     * Gets the longest time a task of the given lane waited in the queue
+     * before being run.
+     *
+     * @param priority The lane.
+     * @return The maximum wait time, in milliseconds.
+     */
+    public double getMaxWaitMillis(Priority priority) {
+        synchronized (lock) {
+            return maxWaitNanos[priority.ordinal()] / 1000000d;
+        }
+    }
+
+    /**
+     * Gets the time the oldest task still queued in the given lane has been
+     * waiting so far.
+     *
+     * @param priority The lane.
+     * @return The current wait time, in milliseconds, or 0 if the lane is
+     * empty.
+     */
+    public double getOldestWaitMillis(Priority priority) {
+        synchronized (lock) {
+            Task head = queues[priority.ordinal()].peekFirst();
+
+            if (head == null) {
+                return 0;
+            }
+
+            return (System.nanoTime() - head.submittedNanos) / 1000000d;
+        }
+    }
+
+    /**
+     * Resets the executed counts and wait time statistics of all lanes.
+     */
+    public void resetStatistics() {
+        synchronized (lock) {
+            for (int i = 0; i < LANES; i++) {
+                executed[i] = 0;
+                totalWaitNanos[i] = 0;
+                maxWaitNanos[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Sets how long a single drain may keep the JavaFX Thread busy before
+     * yielding. At least one task is always run per drain.
+     *
+     * @param millis The time slice budget, in milliseconds.
+     */
+    public void setSliceBudgetMillis(long millis) {
+        this.sliceBudgetNanos = Math.max(0, millis) * 1000000L;
+    }
+
+    /**
+     * Sets how long a task may wait before it is run ahead of higher priority
+     * work.
+     *
+     * @param millis The starvation threshold, in milliseconds.
+     */
+    public void setStarvationThresholdMillis(long millis) {
+        this.starvationThresholdNanos = Math.max(0, millis) * 1000000L;
+    }
+
+    private boolean cancel(Task task) {
+        synchronized (lock) {
+            if (!queues[task.priority.ordinal()].remove(task)) {
+                return false;
+            }
+
+            task.cancelled = true;
+        }
+
+        cancelFuture(task);
+
+        return true;
+    }
+
+    /**
+     * Cancels the work of a cancelled task if it is a Future, so that it
+     * completes. Called outside the lock, since it runs the completion code
+     * of the Future.
+     */
+    private static void cancelFuture(Task task) {
+        if (task.runnable instanceof Future) {
+            ((Future<?>) task.runnable).cancel(false);
+        }
+    }
+
+    /**
+     * Runs queued work until the time slice budget is spent. This method runs
+     * only in the JavaFX thread.
+     */
+    private void drain() {
+        long started = System.nanoTime();
+        long budget = sliceBudgetNanos;
+
+        try {
+            while (true) {
+                Task task = next();
+
+                if (task == null) {
+                    break;
+                }
+
+                try {
+                    task.runnable.run();
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.SEVERE, null, ex);
+                }
+
+                if (System.nanoTime() - started >= budget) {
+                    break;
+                }
+            }
+        } finally {
+            // Runs even if a task threw an Error, so the scheduler never
+            // stalls with a drain marked as pending.
+            reschedule();
+        }
+    }
+
+    /**
+     * Posts another drain if work is left, or clears the pending drain flag.
+     */
+    private void reschedule() {
+        synchronized (lock) {
+            if (isEmpty()) {
+                drainScheduled = false;
+                return;
+            }
+        }
+
+        Platform.runLater(drain);
+    }
+
+    /**
+     * Takes the next task to run and records its wait time.
+     *
+     * @return The next task, or null if all lanes are empty.
+     */
+    private Task next() {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            int lane = -1;
+            long oldestWait = starvationThresholdNanos;
+
+            for (int i = 0; i < LANES; i++) {
+                Task head = queues[i].peekFirst();
+
+                if (head != null && now - head.submittedNanos > oldestWait) {
+                    oldestWait = now - head.submittedNanos;
+                    lane = i;
+                }
+            }
+
+            if (lane < 0) {
+                for (int i = 0; i < LANES; i++) {
+                    if (!queues[i].isEmpty()) {
+                        lane = i;
+                        break;
+                    }
+                }
+            }
+
+            if (lane < 0) {
+                return null;
+            }
+
+            Task task = queues[lane].pollFirst();
+            long wait = now - task.submittedNanos;
+
+            executed[lane]++;
+            totalWaitNanos[lane] += wait;
+            maxWaitNanos[lane] = Math.max(maxWaitNanos[lane], wait);
+
+            return task;
+        }
+    }
+
+    private boolean isEmpty() {
+        for (int i = 0; i < LANES; i++) {
+            if (!queues[i].isEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package org.xava.jfx2swing.webview;
+
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps resource names to MIME types for the {@link ResourceProtocol}.
+ * <p>
+ * No charset is sent with the types, so that the engine honours the encoding
+ * declared by the content itself, e.g. with a meta charset tag. A provider
+ * that knows the encoding may set it in the content type of its resources.
+ *
+ * @author Alaa Sarhan
+ */
+final class MimeTypes {
+
+    static final String DEFAULT = "application/octet-stream";
+
+    private static final Map<String, String> TYPES
+            = new HashMap<String, String>();
+
+    static {
+        TYPES.put("html", "text/html");
+        TYPES.put("htm", "text/html");
+        TYPES.put("xhtml", "application/xhtml+xml");
+        TYPES.put("css", "text/css");
+        TYPES.put("js", "application/javascript");
+        TYPES.put("mjs", "application/javascript");
+        TYPES.put("json", "application/json");
+        TYPES.put("xml", "application/xml");
+        TYPES.put("txt", "text/plain");
+        TYPES.put("svg", "image/svg+xml");
+        TYPES.put("png", "image/png");
+        TYPES.put("jpg", "image/jpeg");
+        TYPES.put("jpeg", "image/jpeg");
+        TYPES.put("gif", "image/gif");
+        TYPES.put("bmp", "image/bmp");
+        TYPES.put("ico", "image/x-icon");
+        TYPES.put("webp", "image/webp");
+        TYPES.put("woff", "font/woff");
+        TYPES.put("woff2", "font/woff2");
+        TYPES.put("ttf", "font/ttf");
+        TYPES.put("otf", "font/otf");
+        TYPES.put("mp3", "audio/mpeg");
+        TYPES.put("wav", "audio/wav");
+        TYPES.put("mp4", "video/mp4");
+        TYPES.put("webm", "video/webm");
+    }
+
+    private MimeTypes() {
+    }
+
+    /**
+     * Gets the MIME type of the given resource name from its extension.
+     *
+     * @param name The resource name or path.
+     * @return The MIME type, {@link #DEFAULT} if it cannot be determined.
+     */
+    static String forName(String name) {
+        int dot = name.lastIndexOf('.');
+
+        if (dot >= 0 && dot > name.lastIndexOf('/')) {
+            String type = TYPES.get(
+                    name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+
+            if (type != null) {
+                return type;
+            }
+        }
+
+        String guessed = URLConnection.guessContentTypeFromName(name);
+
+        return guessed != null ? guessed : DEFAULT;
+    }
+}
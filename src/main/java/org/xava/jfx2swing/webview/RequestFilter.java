@@ -0,0 +1,27 @@
+package org.xava.jfx2swing.webview;
+
+import java.net.URL;
+
+/**
+ * Decides which requests of the WebEngine are allowed to load.
+ * <p>
+ * A filter is installed with {@link RequestFiltering#setFilter(RequestFilter)}
+ * and is consulted for every http and https request, from the threads the
+ * engine uses to load resources. Implementations must therefore be
+ * thread-safe and fast.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ * @see UrlRuleFilter
+ */
+public interface RequestFilter {
+
+    /**
+     * Decides whether the request for the given URL must be blocked.
+     *
+     * @param url The requested URL.
+     * @return true to block the request, false to let it load.
+     */
+    boolean isBlocked(URL url);
+}
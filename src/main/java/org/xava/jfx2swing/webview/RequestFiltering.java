@@ -0,0 +1,229 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applies a {@link RequestFilter} to the http and https loads of the
+ * WebEngine and reports how it performs.
+ * <p>
+ * The filter is applied at the URL stream handler level, so it covers the
+ * documents loaded with {@link WebView#load(java.net.URL)} as well as every
+ * script, style sheet, image and XMLHttpRequest they pull in. A blocked
+ * request fails with an IOException, as a request to an unreachable server
+ * would.
+ * <p>
+ * <b>The filter applies to the whole JVM.</b> URL stream handlers cannot be
+ * scoped to a component, so once a filter is set, every http and https
+ * connection opened through <code>java.net.URL</code> goes through it,
+ * including the application's own HttpURLConnection traffic, and is counted
+ * in the statistics. Rule lists must therefore not match the hosts the
+ * application itself talks to. The filter is shared by all the WebView
+ * instances.
+ * <p>
+ * <h3>On installation</h3>
+ * The first call to {@link #setFilter(RequestFilter)} installs the
+ * URLStreamHandlerFactory shared with the {@link ResourceProtocol}, and fails
+ * with an IllegalStateException if the application has installed its own
+ * factory. If the resource protocol was registered first, the filter must
+ * still be set before any http URL is created, since Java resolves the
+ * handler of a protocol only once.
+ * <p>
+ * JavaFX versions that load http resources with their own HTTP/2 client
+ * bypass URL stream handlers. Setting a filter therefore sets the system
+ * property <code>com.sun.webkit.useHTTP2Loader</code> to false if it is not
+ * set, and logs a warning if it is set to anything else. JavaFX reads the
+ * property once, so the filter must be set before the first WebView is
+ * initialized.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public final class RequestFiltering {
+
+    private static final String HTTP2_LOADER_PROPERTY
+            = "com.sun.webkit.useHTTP2Loader";
+    private static final Logger LOGGER
+            = Logger.getLogger(RequestFiltering.class.getName());
+
+    private static volatile RequestFilter filter = null;
+    private static final AtomicLong blocked = new AtomicLong();
+    private static final AtomicLong allowed = new AtomicLong();
+    private static final AtomicLong matchingNanos = new AtomicLong();
+
+    private RequestFiltering() {
+    }
+
+    /**
+     * Sets the filter applied to all the http and https loads of the JVM.
+     *
+     * @param requestFilter The filter to apply. null to unset.
+     * @throws IllegalStateException if the URL stream handler factory could
+     * not be installed, or if http URLs were already resolved without the
+     * filter.
+     */
+    public static void setFilter(RequestFilter requestFilter) {
+        if (requestFilter != null) {
+            EngineURLStreamHandlerFactory.installHttpFiltering();
+
+            String http2 = System.getProperty(HTTP2_LOADER_PROPERTY);
+
+            if (http2 == null) {
+                System.setProperty(HTTP2_LOADER_PROPERTY, "false");
+            } else if (!"false".equalsIgnoreCase(http2)) {
+                LOGGER.log(Level.WARNING, "{0} is set to {1}: the WebEngine"
+                        + " HTTP/2 loader bypasses the request filter.",
+                        new Object[]{HTTP2_LOADER_PROPERTY, http2});
+            }
+        }
+
+        filter = requestFilter;
+    }
+
+    /**
+     * Gets the filter applied to all the engine loads.
+     *
+     * @return The filter, or null if none is set.
+     */
+    public static RequestFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Gets the number of requests, of the whole JVM, blocked since the statistics were last
+     * reset.
+     *
+     * @return The blocked request count.
+     */
+    public static long getBlockedCount() {
+        return blocked.get();
+    }
+
+    /**
+     * Gets the number of requests, of the whole JVM, the filter allowed since the statistics
+     * were last reset.
+     *
+     * @return The allowed request count.
+     */
+    public static long getAllowedCount() {
+        return allowed.get();
+    }
+
+    /**
+     * Gets the total time spent in the filter since the statistics were last
+     * reset.
+     *
+     * @return The matching time, in milliseconds.
+     */
+    public static double getMatchingTimeMillis() {
+        return matchingNanos.get() / 1000000d;
+    }
+
+    /**
+     * Resets the blocked and allowed counts and the matching time.
+     */
+    public static void resetStatistics() {
+        blocked.set(0);
+        allowed.set(0);
+        matchingNanos.set(0);
+    }
+
+    /**
+     * Runs the current filter on the given URL and records the decision.
+     *
+     * @param url The requested URL.
+     * @return true if the request must be blocked.
+     */
+    static boolean isBlocked(URL url) {
+        RequestFilter current = filter;
+
+        if (current == null) {
+            return false;
+        }
+
+        long started = System.nanoTime();
+        boolean block = current.isBlocked(url);
+        matchingNanos.addAndGet(System.nanoTime() - started);
+
+        (block ? blocked : allowed).incrementAndGet();
+
+        return block;
+    }
+
+    /**
+     * A URL stream handler that runs the filter before delegating to the
+     * default JDK handler of its protocol.
+     */
+    static final class Handler extends URLStreamHandler {
+
+        private final URL context;
+        private final int defaultPort;
+
+        /**
+         * Creates a handler for the given protocol. Must be called before the
+         * factory is installed so that the default JDK handler is captured.
+         */
+        Handler(String protocol, int defaultPort)
+                throws MalformedURLException {
+            // A URL created relative to a context URL of the same protocol
+            // keeps the handler of the context.
+            this.context = new URL(protocol + "://localhost/");
+            this.defaultPort = defaultPort;
+        }
+
+        @Override
+        protected URLConnection openConnection(URL url) throws IOException {
+            if (isBlocked(url)) {
+                return new BlockedConnection(url);
+            }
+
+            return new URL(context, url.toExternalForm()).openConnection();
+        }
+
+        @Override
+        protected URLConnection openConnection(URL url, Proxy proxy)
+                throws IOException {
+            if (isBlocked(url)) {
+                return new BlockedConnection(url);
+            }
+
+            return new URL(context, url.toExternalForm()).openConnection(proxy);
+        }
+
+        @Override
+        protected int getDefaultPort() {
+            return defaultPort;
+        }
+    }
+
+    /**
+     * The connection returned for blocked requests.
+     */
+    private static final class BlockedConnection extends URLConnection {
+
+        private BlockedConnection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public void connect() throws IOException {
+            throw new IOException("Blocked by request filter: "
+                    + url.toExternalForm());
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            connect();
+            return null;
+        }
+    }
+}
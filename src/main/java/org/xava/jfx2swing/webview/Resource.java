@@ -0,0 +1,75 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A resource served by the {@link ResourceProtocol} to the WebEngine.
+ * <p>
+ * A resource describes its content and hands out a fresh stream each time it
+ * is read, so that the engine can stream it without the data ever being
+ * copied into a String.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public abstract class Resource {
+
+    private final String contentType;
+    private final long contentLength;
+    private final long lastModified;
+
+    /**
+     * Creates a resource description.
+     *
+     * @param contentType The MIME type of the content, or null to guess it
+     * from the resource path.
+     * @param contentLength The length of the content in bytes, or -1 if it is
+     * not known.
+     * @param lastModified The last modification time in milliseconds since
+     * the epoch, or 0 if it is not known.
+     */
+    protected Resource(String contentType, long contentLength,
+            long lastModified) {
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Opens a new stream over the content of this resource.
+     *
+     * @return The content stream. The caller is responsible for closing it.
+     * @throws IOException
+     */
+    public abstract InputStream openStream() throws IOException;
+
+    /**
+     * Gets the MIME type of the content.
+     *
+     * @return The MIME type, or null if it should be guessed from the path.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the length of the content.
+     *
+     * @return The length in bytes, or -1 if it is not known.
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Gets the last modification time of the content.
+     *
+     * @return The time in milliseconds since the epoch, or 0 if it is not
+     * known.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,357 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.URLStreamHandler;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A custom URL scheme that lets the WebEngine load resources from memory.
+ * <p>
+ * Resources are addressed as
+ * <code>jfx2swing-res://&lt;host&gt;/&lt;path&gt;</code>, where the host
+ * selects a {@link ResourceProvider} registered with
+ * {@link #register(String, ResourceProvider)}. Providers are available for
+ * class-path resources ({@link ClasspathResourceProvider}), memory-mapped zip
+ * archives ({@link ArchiveResourceProvider}) and registered ByteBuffers
+ * ({@link BufferResourceProvider}). A page loaded from this scheme resolves
+ * its relative CSS, script and image references against the same host, so
+ * bundled pages with many assets can be shown without inlining them or
+ * extracting them to disk.
+ * <p>
+ * Responses carry the Content-Type, Content-Length, Last-Modified and
+ * Cache-Control headers. Content is streamed straight from the provider.
+ * <p>
+ * <h3>On installation</h3>
+ * The scheme is made known to <code>java.net.URL</code> through a
+ * URLStreamHandlerFactory, which is installed the first time a provider is
+ * registered. Java allows a single factory per JVM, so registering fails with
+ * an IllegalStateException if the application has installed its own.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public final class ResourceProtocol {
+
+    /**
+     * The URL scheme served by this protocol.
+     */
+    public static final String SCHEME = "jfx2swing-res";
+
+    private static final Map<String, ResourceProvider> PROVIDERS
+            = new ConcurrentHashMap<String, ResourceProvider>();
+    private static volatile long maxAgeSeconds = 3600;
+
+    private ResourceProtocol() {
+    }
+
+    /**
+     * Registers a resource provider under the given host name, replacing any
+     * provider previously registered under it.
+     *
+     * @param host The host name the provider is reachable at.
+     * @param provider The provider to register.
+     * @throws IllegalStateException if the URL stream handler factory could
+     * not be installed.
+     */
+    public static void register(String host, ResourceProvider provider) {
+        if (host == null || provider == null) {
+            throw new NullPointerException();
+        }
+
+        EngineURLStreamHandlerFactory.install();
+        PROVIDERS.put(host.toLowerCase(Locale.ENGLISH), provider);
+    }
+
+    /**
+     * Unregisters the resource provider of the given host name.
+     *
+     * @param host The host name to unregister.
+     */
+    public static void unregister(String host) {
+        if (host != null) {
+            PROVIDERS.remove(host.toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * Creates the URL of a resource.
+     *
+     * @param host The host name the resource provider is registered under.
+     * @param path The path of the resource within the provider, as it was
+     * registered. Each segment is percent-encoded into the URL, so names may
+     * hold spaces, '#', '%' and other reserved characters.
+     * @return The resource URL.
+     * @throws MalformedURLException if the URL stream handler factory is not
+     * installed yet or the host is not a valid URL host.
+     */
+    public static URL createURL(String host, String path)
+            throws MalformedURLException {
+        if (host == null) {
+            throw new IllegalArgumentException("The host must not be null.");
+        }
+
+        if (path == null) {
+            throw new IllegalArgumentException("The path must not be null.");
+        }
+
+        StringBuilder spec = new StringBuilder(SCHEME).append("://")
+                .append(host);
+
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+
+            try {
+                spec.append('/').append(URLEncoder.encode(segment, "UTF-8")
+                        .replace("+", "%20"));
+            } catch (UnsupportedEncodingException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        if (path.isEmpty() || path.endsWith("/")) {
+            spec.append('/');
+        }
+
+        return new URL(spec.toString());
+    }
+
+    /**
+     * Sets the max-age sent in the Cache-Control header of the served
+     * resources. Bundled assets rarely change during the application's
+     * lifetime, so long values let the engine reuse them across pages.
+     *
+     * @param seconds The max-age in seconds. 0 sends "no-cache".
+     */
+    public static void setMaxAgeSeconds(long seconds) {
+        maxAgeSeconds = Math.max(0, seconds);
+    }
+
+    /**
+     * Decodes the percent-encoded path of a resource URL. Returns null for
+     * malformed paths.
+     */
+    static String decodePath(String path) {
+        try {
+            return URLDecoder.decode(path.replace("+", "%2B"), "UTF-8");
+        } catch (IllegalArgumentException ex) {
+            return null;
+        } catch (UnsupportedEncodingException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Normalizes a decoded resource path: removes empty and "." segments and
+     * the leading slash. Returns null for paths that would escape the
+     * provider's root.
+     */
+    static String normalizePath(String path) {
+        List<String> segments = new ArrayList<String>();
+
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+
+            if (segment.equals("..") || segment.indexOf('\\') >= 0) {
+                return null;
+            }
+
+            segments.add(segment);
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        for (String segment : segments) {
+            if (builder.length() > 0) {
+                builder.append('/');
+            }
+            builder.append(segment);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * The URL stream handler of the resource scheme.
+     */
+    static final class Handler extends URLStreamHandler {
+
+        @Override
+        protected URLConnection openConnection(URL url) throws IOException {
+            return new Connection(url);
+        }
+    }
+
+    /**
+     * A connection to a single resource.
+     */
+    static final class Connection extends URLConnection {
+
+        private Resource resource;
+        private String path;
+        private Map<String, List<String>> headers
+                = Collections.emptyMap();
+
+        Connection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public void connect() throws IOException {
+            if (connected) {
+                return;
+            }
+
+            String host = url.getHost() == null ? ""
+                    : url.getHost().toLowerCase(Locale.ENGLISH);
+            ResourceProvider provider = PROVIDERS.get(host);
+            String decoded = decodePath(url.getPath());
+            path = decoded == null ? null : normalizePath(decoded);
+
+            if (provider != null && path != null) {
+                resource = provider.getResource(path);
+            }
+
+            if (resource == null) {
+                throw new FileNotFoundException(url.toExternalForm());
+            }
+
+            headers = buildHeaders();
+            connected = true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            connect();
+
+            return resource.openStream();
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            List<String> values = getHeaderFields().get(name);
+
+            if (values == null) {
+                for (Map.Entry<String, List<String>> entry
+                        : getHeaderFields().entrySet()) {
+                    if (entry.getKey().equalsIgnoreCase(name)) {
+                        values = entry.getValue();
+                    }
+                }
+            }
+
+            return values == null ? null : values.get(0);
+        }
+
+        @Override
+        public String getHeaderFieldKey(int n) {
+            List<String> keys
+                    = new ArrayList<String>(getHeaderFields().keySet());
+
+            return n >= 0 && n < keys.size() ? keys.get(n) : null;
+        }
+
+        @Override
+        public String getHeaderField(int n) {
+            String key = getHeaderFieldKey(n);
+
+            return key == null ? null : getHeaderField(key);
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaderFields() {
+            try {
+                connect();
+            } catch (IOException ex) {
+                return Collections.emptyMap();
+            }
+
+            return headers;
+        }
+
+        @Override
+        public String getContentType() {
+            return getHeaderField("Content-Type");
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            try {
+                connect();
+            } catch (IOException ex) {
+                return -1;
+            }
+
+            return resource.getContentLength();
+        }
+
+        @Override
+        public int getContentLength() {
+            long length = getContentLengthLong();
+
+            return length > Integer.MAX_VALUE ? -1 : (int) length;
+        }
+
+        @Override
+        public long getLastModified() {
+            try {
+                connect();
+            } catch (IOException ex) {
+                return 0;
+            }
+
+            return resource.getLastModified();
+        }
+
+        private Map<String, List<String>> buildHeaders() {
+            Map<String, List<String>> map
+                    = new LinkedHashMap<String, List<String>>();
+            String type = resource.getContentType();
+
+            map.put("Content-Type", Collections.singletonList(
+                    type != null ? type : MimeTypes.forName(path)));
+
+            if (resource.getContentLength() >= 0) {
+                map.put("Content-Length", Collections.singletonList(
+                        String.valueOf(resource.getContentLength())));
+            }
+
+            if (resource.getLastModified() > 0) {
+                SimpleDateFormat format = new SimpleDateFormat(
+                        "EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+                format.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+                map.put("Last-Modified", Collections.singletonList(
+                        format.format(new Date(resource.getLastModified()))));
+            }
+
+            long maxAge = maxAgeSeconds;
+
+            map.put("Cache-Control", Collections.singletonList(
+                    maxAge > 0 ? "max-age=" + maxAge : "no-cache"));
+
+            return Collections.unmodifiableMap(map);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.IOException;
+
+/**
+ * A source of resources registered under a host name of the
+ * {@link ResourceProtocol}.
+ * <p>
+ * Providers are called from the threads the WebEngine uses to load
+ * resources and therefore must be thread-safe.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public interface ResourceProvider {
+
+    /**
+     * Looks up the resource at the given path.
+     *
+     * @param path The normalized resource path, relative to the host and
+     * without a leading slash.
+     * @return The resource, or null if this provider has no such resource.
+     * @throws IOException
+     */
+    Resource getResource(String path) throws IOException;
+}
@@ -0,0 +1,530 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link RequestFilter} blocking requests that match a list of URL rules.
+ * <p>
+ * Four kinds of rules are supported, all matched case-insensitively:
+ * <ul>
+ * <li>Domain suffixes, blocking a domain and all its sub-domains.</li>
+ * <li>Domain anchored patterns, blocking the URLs of a domain and its
+ * sub-domains whose remainder, right after the host, starts with a
+ * pattern.</li>
+ * <li>URL substrings, blocking every URL containing them.</li>
+ * <li>Wildcard patterns, blocking every URL containing a match.</li>
+ * </ul>
+ * In patterns, <code>*</code> matches any sequence of characters and
+ * <code>^</code> matches a separator: any character other than a letter, a
+ * digit or one of <code>_ - . %</code>, or the end of the URL.
+ * <p>
+ * The rules are compiled on construction so that a lookup never scans the
+ * rule list: domains are kept in a trie of labels, domain anchored patterns
+ * are looked up by the suffixes of the host, and substrings, together with
+ * the longest literal part of every wildcard pattern, are searched for with a
+ * single Aho-Corasick pass over the URL. Only the wildcard patterns whose
+ * literal part was found are then matched in full, once per lookup however
+ * often their literal part occurs.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class UrlRuleFilter implements RequestFilter {
+
+    private static final Set<String> IGNORABLE_OPTIONS = new HashSet<String>(
+            Arrays.asList("script", "image", "stylesheet", "object",
+                    "object-subrequest", "xmlhttprequest", "subdocument",
+                    "ping", "media", "font", "websocket", "webrtc", "other",
+                    "important", "match-case", "collapse", "~collapse"));
+
+    private final DomainSuffixTrie domains = new DomainSuffixTrie();
+    private final Map<String, List<String>> domainPatterns
+            = new HashMap<String, List<String>>();
+    private final AhoCorasick literals;
+    private final int substringCount;
+    private final String[] wildcards;
+    private final List<String> literalFreeWildcards = new ArrayList<String>();
+    private final int skippedRules;
+
+    /**
+     * Compiles the given rules.
+     *
+     * @param domainSuffixes The domains to block, with their sub-domains.
+     * @param substrings The URL substrings to block.
+     * @param wildcardPatterns The wildcard patterns to block.
+     */
+    public UrlRuleFilter(Collection<String> domainSuffixes,
+            Collection<String> substrings,
+            Collection<String> wildcardPatterns) {
+        this(domainSuffixes, Collections.<String, List<String>>emptyMap(),
+                substrings, wildcardPatterns, 0);
+    }
+
+    private UrlRuleFilter(Collection<String> domainSuffixes,
+            Map<String, List<String>> anchoredPatterns,
+            Collection<String> substrings,
+            Collection<String> wildcardPatterns, int skippedRules) {
+        for (String domain : domainSuffixes) {
+            domains.add(domain.toLowerCase(Locale.ENGLISH));
+        }
+
+        for (Map.Entry<String, List<String>> entry
+                : anchoredPatterns.entrySet()) {
+            List<String> patterns = new ArrayList<String>();
+
+            for (String pattern : entry.getValue()) {
+                patterns.add(pattern.toLowerCase(Locale.ENGLISH));
+            }
+
+            domainPatterns.put(entry.getKey().toLowerCase(Locale.ENGLISH),
+                    patterns);
+        }
+
+        List<String> patterns = new ArrayList<String>();
+
+        for (String substring : substrings) {
+            patterns.add(substring.toLowerCase(Locale.ENGLISH));
+        }
+
+        substringCount = patterns.size();
+        wildcards = new String[wildcardPatterns.size()];
+
+        int i = 0;
+        for (String wildcard : wildcardPatterns) {
+            wildcards[i] = wildcard.toLowerCase(Locale.ENGLISH);
+
+            String anchor = longestLiteral(wildcards[i]);
+
+            if (anchor.isEmpty()) {
+                literalFreeWildcards.add(wildcards[i]);
+            }
+
+            patterns.add(anchor);
+            i++;
+        }
+
+        literals = new AhoCorasick(patterns);
+        this.skippedRules = skippedRules;
+    }
+
+    /**
+     * Compiles a rule list in the Adblock filter syntax, one rule per
+     * element. The supported subset is:
+     * <ul>
+     * <li><code>||example.com^</code>: a domain suffix rule. The trailing
+     * <code>^</code> or <code>/</code> is optional.</li>
+     * <li><code>||example.com/ads*</code>: a domain anchored pattern. The
+     * domain must not contain <code>*</code>.</li>
+     * <li>Rules containing <code>*</code> or <code>^</code>: wildcard
+     * patterns.</li>
+     * <li>Any other rule: a URL substring.</li>
+     * </ul>
+     * Resource type options after a <code>$</code>, such as
+     * <code>$script,image</code>, and the <code>important</code>,
+     * <code>match-case</code> and <code>collapse</code> options are dropped,
+     * so such a rule applies to all the requests of its URLs. Empty rules,
+     * comments (<code>!</code>) and headers (<code>[</code>) are ignored.
+     * Rules that cannot be honoured are skipped and counted by
+     * {@link #getSkippedRuleCount()}: exception rules (<code>@@</code>),
+     * element hiding rules (<code>##</code>, <code>#@#</code>,
+     * <code>#?#</code>), regular expressions, rules using the <code>|</code>
+     * start or end anchor and rules with any other option, such as
+     * <code>third-party</code>, <code>domain=</code>, <code>popup</code> or
+     * <code>badfilter</code>, since dropping them would block requests the
+     * rule does not apply to.
+     *
+     * @param rules The rules.
+     * @return The compiled filter.
+     */
+    public static UrlRuleFilter parse(Iterable<String> rules) {
+        List<String> domainSuffixes = new ArrayList<String>();
+        Map<String, List<String>> anchoredPatterns
+                = new HashMap<String, List<String>>();
+        List<String> substrings = new ArrayList<String>();
+        List<String> wildcardPatterns = new ArrayList<String>();
+        int skipped = 0;
+
+        for (String rule : rules) {
+            rule = rule.trim();
+
+            if (rule.isEmpty() || rule.startsWith("!")
+                    || rule.startsWith("[")) {
+                continue;
+            }
+
+            if (rule.startsWith("@@") || rule.contains("##")
+                    || rule.contains("#@#") || rule.contains("#?#")) {
+                skipped++;
+                continue;
+            }
+
+            if (isRegex(rule)) {
+                skipped++;
+                continue;
+            }
+
+            int options = rule.lastIndexOf('$');
+
+            if (options >= 0) {
+                if (!hasIgnorableOptions(rule.substring(options + 1))) {
+                    skipped++;
+                    continue;
+                }
+
+                rule = rule.substring(0, options);
+            }
+
+            boolean domainAnchor = rule.startsWith("||");
+
+            if (domainAnchor) {
+                rule = rule.substring(2);
+            }
+
+            if (rule.isEmpty() || rule.startsWith("|") || rule.endsWith("|")
+                    || (isRegex(rule) && !domainAnchor)) {
+                skipped++;
+                continue;
+            }
+
+            if (domainAnchor) {
+                int end = 0;
+
+                while (end < rule.length() && isDomainChar(rule.charAt(end))) {
+                    end++;
+                }
+
+                String domain = rule.substring(0, end);
+                String rest = rule.substring(end);
+
+                while (domain.endsWith(".")) {
+                    domain = domain.substring(0, domain.length() - 1);
+                }
+
+                if (domain.isEmpty() || rest.startsWith("*")) {
+                    skipped++;
+                    continue;
+                }
+
+                if (rest.isEmpty() || rest.equals("^") || rest.equals("/")) {
+                    domainSuffixes.add(domain);
+                } else {
+                    List<String> patterns = anchoredPatterns.get(domain);
+
+                    if (patterns == null) {
+                        patterns = new ArrayList<String>();
+                        anchoredPatterns.put(domain, patterns);
+                    }
+
+                    patterns.add(rest);
+                }
+            } else if (rule.indexOf('*') >= 0 || rule.indexOf('^') >= 0) {
+                wildcardPatterns.add(rule);
+            } else {
+                substrings.add(rule);
+            }
+        }
+
+        return new UrlRuleFilter(domainSuffixes, anchoredPatterns, substrings,
+                wildcardPatterns, skipped);
+    }
+
+    /**
+     * Compiles a rule list read from the given reader, one rule per line.
+     *
+     * @param reader The reader to read the rules from. It is not closed.
+     * @return The compiled filter.
+     * @throws IOException
+     * @see #parse(Iterable)
+     */
+    public static UrlRuleFilter parse(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        List<String> rules = new ArrayList<String>();
+        String line;
+
+        while ((line = lines.readLine()) != null) {
+            rules.add(line);
+        }
+
+        return parse(rules);
+    }
+
+    /**
+     * Compiles the given rules.
+     *
+     * @param rules The rules.
+     * @return The compiled filter.
+     * @see #parse(Iterable)
+     */
+    public static UrlRuleFilter parse(String... rules) {
+        return parse(Arrays.asList(rules));
+    }
+
+    /**
+     * Creates a filter that blocks nothing.
+     *
+     * @return The empty filter.
+     */
+    public static UrlRuleFilter empty() {
+        List<String> none = Collections.emptyList();
+
+        return new UrlRuleFilter(none, none, none);
+    }
+
+    /**
+     * Gets the number of rules that were skipped by {@link #parse(Iterable)}
+     * because their syntax is not supported.
+     *
+     * @return The skipped rule count.
+     */
+    public int getSkippedRuleCount() {
+        return skippedRules;
+    }
+
+    @Override
+    public boolean isBlocked(URL url) {
+        String host = normalizeHost(url.getHost());
+
+        if (!host.isEmpty() && domains.matches(host)) {
+            return true;
+        }
+
+        // The external form is the scheme, then "//" and the authority if
+        // there is one, then the path, query and fragment.
+        String authority = url.getAuthority();
+        String prefix = url.getProtocol() + ":";
+
+        if (authority != null && !authority.isEmpty()) {
+            prefix += "//" + authority;
+        }
+
+        String head = prefix.toLowerCase(Locale.ENGLISH);
+        String tail = url.toExternalForm().substring(prefix.length())
+                .toLowerCase(Locale.ENGLISH);
+
+        return matches(head + tail, host, head.length());
+    }
+
+    /**
+     * Matches the given URL against the domain anchored, substring and
+     * wildcard rules.
+     *
+     * @param url The URL to match.
+     * @return true if a rule matches the URL.
+     */
+    public boolean isBlocked(String url) {
+        String text = url.toLowerCase(Locale.ENGLISH);
+        int scheme = text.indexOf("://");
+
+        if (scheme < 0) {
+            return matches(text, "", -1);
+        }
+
+        int authorityStart = scheme + 3;
+        int pathStart = authorityStart;
+
+        while (pathStart < text.length()
+                && "/?#".indexOf(text.charAt(pathStart)) < 0) {
+            pathStart++;
+        }
+
+        // Skip the user information and the port, if any.
+        int at = text.lastIndexOf('@', pathStart - 1);
+        String host = text.substring(Math.max(at + 1, authorityStart),
+                pathStart);
+        int port = host.lastIndexOf(':');
+
+        if (port > host.lastIndexOf(']')) {
+            host = host.substring(0, port);
+        }
+
+        return matches(text, normalizeHost(host), pathStart);
+    }
+
+    /**
+     * Matches the lower-cased URL against the domain anchored, substring and
+     * wildcard rules.
+     *
+     * @param text The lower-cased URL.
+     * @param host The normalized host of the URL.
+     * @param pathStart The offset of the path in the URL, right after the
+     * authority, or -1 if the URL has none.
+     */
+    private boolean matches(final String text, String host, int pathStart) {
+        if (!domainPatterns.isEmpty() && !host.isEmpty() && pathStart >= 0
+                && matchesDomainPattern(text, host, pathStart)) {
+            return true;
+        }
+
+        for (String wildcard : literalFreeWildcards) {
+            if (wildcardMatches(wildcard, text, 0, false)) {
+                return true;
+            }
+        }
+
+        return literals.search(text, new AhoCorasick.Hit() {
+
+            // The wildcards already matched in full during this lookup. A
+            // wildcard is matched against the whole URL, so the repeated
+            // occurrences of its literal part need not match it again.
+            private BitSet checked;
+
+            @Override
+            public boolean found(int pattern) {
+                if (pattern < substringCount) {
+                    return true;
+                }
+
+                int wildcard = pattern - substringCount;
+
+                if (checked == null) {
+                    checked = new BitSet(wildcards.length);
+                } else if (checked.get(wildcard)) {
+                    return false;
+                }
+
+                checked.set(wildcard);
+
+                return wildcardMatches(wildcards[wildcard], text, 0, false);
+            }
+        });
+    }
+
+    /**
+     * Matches the domain anchored patterns registered for every suffix of
+     * the host, on label boundaries, against the URL from its path on.
+     */
+    private boolean matchesDomainPattern(String text, String host,
+            int pathStart) {
+        for (int start = 0; start >= 0;) {
+            List<String> patterns = domainPatterns.get(host.substring(start));
+
+            if (patterns != null) {
+                for (String pattern : patterns) {
+                    if (wildcardMatches(pattern, text, pathStart, true)) {
+                        return true;
+                    }
+                }
+            }
+
+            int dot = host.indexOf('.', start);
+            start = dot < 0 ? -1 : dot + 1;
+        }
+
+        return false;
+    }
+
+    /**
+     * Lower-cases the host and removes its trailing dot, if any.
+     */
+    private static String normalizeHost(String host) {
+        if (host == null) {
+            return "";
+        }
+
+        host = host.toLowerCase(Locale.ENGLISH);
+
+        if (host.endsWith(".")) {
+            host = host.substring(0, host.length() - 1);
+        }
+
+        return host;
+    }
+
+    private static boolean isRegex(String rule) {
+        return rule.length() > 1 && rule.startsWith("/") && rule.endsWith("/");
+    }
+
+    /**
+     * Gets whether all the given options can be dropped without blocking
+     * requests the rule does not apply to.
+     */
+    private static boolean hasIgnorableOptions(String options) {
+        for (String option : options.split(",")) {
+            if (!IGNORABLE_OPTIONS.contains(
+                    option.trim().toLowerCase(Locale.ENGLISH))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isDomainChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '-'
+                || c == '_';
+    }
+
+    private static boolean isSeparator(char c) {
+        return !(Character.isLetterOrDigit(c) || c == '_' || c == '-'
+                || c == '.' || c == '%');
+    }
+
+    private static String longestLiteral(String wildcard) {
+        String longest = "";
+
+        for (String part : wildcard.split("[*^]")) {
+            if (part.length() > longest.length()) {
+                longest = part;
+            }
+        }
+
+        return longest;
+    }
+
+    /**
+     * Gets whether the wildcard pattern matches the text from the given
+     * offset on: starting exactly at the offset if anchored, anywhere after
+     * it otherwise. The match may end anywhere in the text.
+     */
+    private static boolean wildcardMatches(String pattern, String text,
+            int offset, boolean anchored) {
+        int p = 0;
+        int t = offset;
+        int star = -1;
+        int resume = offset;
+
+        if (!anchored) {
+            pattern = "*" + pattern;
+        }
+
+        while (p < pattern.length()) {
+            char c = pattern.charAt(p);
+
+            if (c == '*') {
+                star = ++p;
+                resume = t;
+            } else if (t < text.length() && (c == '^'
+                    ? isSeparator(text.charAt(t)) : c == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (t == text.length() && c == '^') {
+                // The separator matches the end of the URL.
+                p++;
+            } else if (star >= 0 && resume < text.length()) {
+                p = star;
+                t = ++resume;
+            } else {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
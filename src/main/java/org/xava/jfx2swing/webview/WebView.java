@@ -10,12 +10,23 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.concurrent.Worker;
 import javafx.concurrent.Worker.State;
 import javafx.embed.swing.JFXPanel;
@@ -30,6 +41,8 @@ import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebEvent;
 import javafx.util.Callback;
 import netscape.javascript.JSException;
+import netscape.javascript.JSObject;
+import org.xava.jfx2swing.webview.FxScheduler.Priority;
 
 /**
  * A JPanel that ports JavaFX WebView widget to Swing based applications.
@@ -68,11 +81,15 @@ import netscape.javascript.JSException;
  */
 public class WebView extends javax.swing.JPanel {
 
-    private Object returned_js_object = null;
-    private JSException jsException = null;
-    private boolean js_execution_returned = false;
     private JFXPanel fxPanel;
     private Webview_fxmlController webViewController;
+    private final FxScheduler scheduler = new FxScheduler();
+    private final AtomicReference<NavigationCall> pendingNavigation
+            = new AtomicReference<NavigationCall>();
+    private final AtomicReference<WebViewState> state
+            = new AtomicReference<WebViewState>(WebViewState.INITIAL);
+    private final CopyOnWriteArrayList<WebViewStateListener> stateListeners
+            = new CopyOnWriteArrayList<WebViewStateListener>();
 
     /**
      * Creates an instance of SwingFXWebView component that can be added to any
@@ -128,6 +145,23 @@ public class WebView extends javax.swing.JPanel {
         return this.webViewController.getWebView();
     }
 
+    /**
+     * Gets the scheduler through which this component dispatches its work to
+     * the JavaFX Thread. All the API calls are queued in the normal lane, so
+     * they run in the order they were made. A navigation call (load, unload,
+     * loadContent or stop) cancels the navigation call still queued before
+     * it, so that a stop or a new load does not wait for a superseded load to
+     * start first. Only work explicitly queued with another priority, such as
+     * {@link #executeScript(String, long, Priority)}, is reordered. The
+     * scheduler may be used to queue custom work and to read per lane queue
+     * depth and wait time statistics.
+     *
+     * @return The scheduler of this component.
+     */
+    public FxScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Unloads the contents of the WebView by setting the content to an empty
      * string.
@@ -136,7 +170,7 @@ public class WebView extends javax.swing.JPanel {
         if (Platform.isFxApplicationThread()) {
             webViewController.getWebView().getEngine().loadContent("");
         } else {
-            Platform.runLater(new Runnable() {
+            submitNavigation(new Runnable() {
                 @Override
                 public void run() {
                     unload();
@@ -159,7 +193,7 @@ public class WebView extends javax.swing.JPanel {
             webViewController.getWebView().getEngine()
                     .load(url.toExternalForm());
         } else {
-            Platform.runLater(new Runnable() {
+            submitNavigation(new Runnable() {
                 @Override
                 public void run() {
                     load(url);
@@ -168,6 +202,20 @@ public class WebView extends javax.swing.JPanel {
         }
     }
 
+    /**
+     * Loads a resource served by the {@link ResourceProtocol} into the
+     * WebView. Relative references within the loaded page are resolved
+     * against the same provider.
+     *
+     * @param host The host name the resource provider is registered under.
+     * @param path The path of the resource within the provider.
+     * @throws MalformedURLException if no provider has been registered yet.
+     */
+    public void loadResource(String host, String path)
+            throws MalformedURLException {
+        load(ResourceProtocol.createURL(host, path));
+    }
+
     /**
      * Loads the given HTML content into the WebView
      *
@@ -182,7 +230,7 @@ public class WebView extends javax.swing.JPanel {
             webViewController.getWebView().getEngine()
                     .loadContent(html);
         } else {
-            Platform.runLater(new Runnable() {
+            submitNavigation(new Runnable() {
                 @Override
                 public void run() {
                     loadContent(html);
@@ -206,7 +254,7 @@ public class WebView extends javax.swing.JPanel {
             webViewController.getWebView().getEngine()
                     .loadContent(content, contentMimeType);
         } else {
-            Platform.runLater(new Runnable() {
+            submitNavigation(new Runnable() {
                 @Override
                 public void run() {
                     loadContent(content, contentMimeType);
@@ -230,7 +278,7 @@ public class WebView extends javax.swing.JPanel {
             worker.cancel();
 
         } else {
-            Platform.runLater(new Runnable() {
+            submitNavigation(new Runnable() {
                 @Override
                 public void run() {
                     stop();
@@ -243,22 +291,18 @@ public class WebView extends javax.swing.JPanel {
      * Executes the given script directly into the WebView and in the calling
      * thread. This method must be called only in the JavaFX thread.
      * <p>
-     * The result of the execution is stored internally in the private variable
-     * <code>returned_js_object</code> so that it can be obtained later.
+     * The result of the execution, and any JSException it throws, are
+     * discarded. Use {@link #executeScript(String, long)} to obtain them.
      *
      * @param script the script to execute.
      */
-    public synchronized void executeScript(String script) {
+    public void executeScript(String script) {
         try {
-            if (getWebView().getEngine().getDocument() != null) {
-                this.returned_js_object = getWebView().getEngine().executeScript(script);
-            }
+            evaluate(script);
         } catch (JSException ex) {
-            this.jsException = ex;
+            Logger.getLogger(WebView.class.getName())
+                    .log(Level.FINE, null, ex);
         }
-
-        this.js_execution_returned = true;
-        notifyAll();
     }
 
     /**
@@ -271,39 +315,59 @@ public class WebView extends javax.swing.JPanel {
      * @return The returned object from the WebEngine as is.
      * @throws TimeoutException
      */
-    public synchronized Object executeScript(final String script, long timeout)
+    public Object executeScript(String script, long timeout)
             throws TimeoutException, JSException {
-        this.js_execution_returned = false;
-        this.returned_js_object = null;
-        this.jsException = null;
+        return executeScript(script, timeout, Priority.NORMAL);
+    }
 
-        Platform.runLater(new Runnable() {
+    /**
+     * Executes the given script in the loaded document in the WebView within
+     * the given timeout, queuing it in the given lane of this component's
+     * scheduler. If the timeout elapses before the script had a chance to
+     * run, it is removed from the queue.
+     * <p>
+     * Every call waits for the result of its own script only, so this method
+     * may be called from several threads at once, with different priorities.
+     * If the component is disposed before the script runs, this method
+     * throws a CancellationException.
+     *
+     * @param script The script to be executed.
+     * @param timeout the timeout, in milliseconds, before this method throws a
+     * TimeoutException if the execution of the script didn't return. 0 to
+     * wait indefinitely.
+     * @param priority The scheduler lane to queue the script in.
+     * @return The returned object from the WebEngine as is.
+     * @throws TimeoutException
+     */
+    public Object executeScript(final String script, long timeout,
+            Priority priority) throws TimeoutException, JSException {
+        Future<Object> execution = submit(priority, new Callable<Object>() {
             @Override
-            public void run() {
-                executeScript(script);
+            public Object call() {
+                return evaluate(script);
             }
         });
 
-        long started = System.currentTimeMillis();
-
-        while (!this.js_execution_returned
-                && ((timeout == 0)
-                || (System.currentTimeMillis() - started) < timeout)) {
-            try {
-                this.wait(100);
-            } catch (InterruptedException ex) {
-                throw new IllegalThreadStateException("Execution interrupted");
-            }
-        }
-
-        if (js_execution_returned) {
-            if (this.jsException != null) {
-                throw this.jsException;
+        try {
+            if (timeout == 0) {
+                return execution.get();
             } else {
-                return returned_js_object;
+                return execution.get(timeout, TimeUnit.MILLISECONDS);
             }
-        } else {
+        } catch (InterruptedException ex) {
+            execution.cancel(false);
+            throw new IllegalThreadStateException("Execution interrupted");
+        } catch (TimeoutException ex) {
+            execution.cancel(false);
             throw new TimeoutException("Script execution timed out.");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw (Error) cause;
         }
     }
 
@@ -364,6 +428,79 @@ public class WebView extends javax.swing.JPanel {
         return executeScript(contentBuidler.toString(), timeout);
     }
 
+    /**
+     * Queries the loaded document with a CSS selector and extracts the given
+     * fields of every matching element.
+     *
+     * @param cssSelector The CSS selector to match elements with.
+     * @param fields The fields to extract from each element.
+     * @return A future of the extracted rows.
+     * @throws IllegalArgumentException if the selector, the fields array or
+     * any of the fields is null, or if no field is given.
+     * @see #query(Priority, String, String...)
+     */
+    public Future<List<String[]>> query(String cssSelector, String... fields) {
+        return query(Priority.NORMAL, cssSelector, fields);
+    }
+
+    /**
+     * Queries the loaded document with a CSS selector and extracts the given
+     * fields of every matching element.
+     * <p>
+     * The selector is evaluated and all the fields of all the matching
+     * elements are extracted on the JavaFX Thread in a single pass, so the
+     * whole query costs one dispatch no matter how many elements match.
+     * <p>
+     * Each field is one of:
+     * <ul>
+     * <li><code>#text</code> for the text content of the element.</li>
+     * <li><code>#html</code> for the inner HTML of the element.</li>
+     * <li><code>#tag</code> for the lower-cased tag name of the element.</li>
+     * <li>Any other name for the value of the attribute with that name.</li>
+     * </ul>
+     * The future completes with one row per matching element, in document
+     * order. Each row holds the values of the fields in the requested order;
+     * missing attributes are null. If no document is loaded the result is
+     * empty. If the selector is invalid, the future fails with a JSException.
+     * If the component is disposed before the query runs, the future is
+     * cancelled. Cancelling the future removes the query from the queue.
+     *
+     * @param priority The scheduler lane to queue the query in.
+     * @param cssSelector The CSS selector to match elements with.
+     * @param fields The fields to extract from each element.
+     * @return A future of the extracted rows.
+     * @throws IllegalArgumentException if the selector, the fields array or
+     * any of the fields is null, or if no field is given.
+     */
+    public Future<List<String[]>> query(Priority priority,
+            final String cssSelector, final String... fields) {
+        if (cssSelector == null) {
+            throw new IllegalArgumentException("The selector must not be null.");
+        }
+
+        if (fields == null) {
+            throw new IllegalArgumentException("The fields must not be null.");
+        }
+
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("No fields to extract.");
+        }
+
+        for (String field : fields) {
+            if (field == null) {
+                throw new IllegalArgumentException(
+                        "The fields must not be null.");
+            }
+        }
+
+        return submit(priority, new Callable<List<String[]>>() {
+            @Override
+            public List<String[]> call() {
+                return extract(cssSelector, fields);
+            }
+        });
+    }
+
     /**
      * Sets a callback that will be called when the prompt(string) method is
      * called from a script within the loaded document.&nbsp;<br />This callback
@@ -380,7 +517,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setPromptHandler(handler);
@@ -404,7 +541,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setOnVisibilityChanged(handler);
@@ -427,7 +564,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setOnStatusChanged(handler);
@@ -450,7 +587,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setOnResized(handler);
@@ -473,7 +610,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setOnAlert(handler);
@@ -496,7 +633,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setJavaScriptEnabled(value);
@@ -519,7 +656,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setCreatePopupHandler(handler);
@@ -541,7 +678,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setConfirmHandler(handler);
@@ -564,7 +701,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     addProgressListener(listener);
@@ -587,7 +724,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     removeProgressListener(listener);
@@ -610,7 +747,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     addStateListener(listener);
@@ -633,7 +770,7 @@ public class WebView extends javax.swing.JPanel {
 
         } else {
 
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     removeStateListener(listener);
@@ -643,13 +780,76 @@ public class WebView extends javax.swing.JPanel {
     }
 
     /**
-     * Gets whether context menu is enabled on the WebView widget.
+     * Gets the latest snapshot of the WebView's state. This method may be
+     * called from any thread; it neither locks nor dispatches to the JavaFX
+     * Thread.
+     *
+     * @return The current state snapshot. Before the JavaFX WebView widget is
+     * initialized this is {@link WebViewState#INITIAL}.
+     */
+    public WebViewState getState() {
+        return state.get();
+    }
+
+    /**
+     * Adds a listener that is notified, on the JavaFX Thread, with the full
+     * snapshot whenever the WebView's state changes.
+     *
+     * @param listener The listener to add.
+     */
+    public void addWebViewStateListener(WebViewStateListener listener) {
+        if (listener != null) {
+            stateListeners.addIfAbsent(listener);
+        }
+    }
+
+    /**
+     * Removes a WebView state listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeWebViewStateListener(WebViewStateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    /**
+     * Gets the location of the currently loaded document. This method may be
+     * called from any thread.
+     *
+     * @return The location, or null if nothing has been loaded yet.
+     */
+    public String getDocumentLocation() {
+        return state.get().getLocation();
+    }
+
+    /**
+     * Gets the title of the currently loaded document. This method may be
+     * called from any thread.
+     *
+     * @return The title, or null if the document has no title.
+     */
+    public String getDocumentTitle() {
+        return state.get().getTitle();
+    }
+
+    /**
+     * Gets whether Javascript is enabled in the WebView's engine. This method
+     * may be called from any thread.
+     *
+     * @return true if Javascript is enabled, false if not.
+     */
+    public boolean isJavaScriptEnabled() {
+        return state.get().isJavaScriptEnabled();
+    }
+
+    /**
+     * Gets whether context menu is enabled on the WebView widget. This method
+     * may be called from any thread.
      *
      * @return true if WebView's context menu is enabled, false if not.
      */
     public boolean isContextMenuEnabled() {
-        // This is experimental implementation not calling from JavaFX Thread.
-        return getWebView().isContextMenuEnabled();
+        return state.get().isContextMenuEnabled();
     }
 
     /**
@@ -661,7 +861,7 @@ public class WebView extends javax.swing.JPanel {
         if (Platform.isFxApplicationThread()) {
             getWebView().setContextMenuEnabled(enabled);
         } else {
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setContextMenuEnabled(enabled);
@@ -680,7 +880,7 @@ public class WebView extends javax.swing.JPanel {
         if (Platform.isFxApplicationThread()) {
             getWebView().getEngine().setUserStyleSheetLocation(cssPath);
         } else {
-            Platform.runLater(new Runnable() {
+            scheduler.submit(Priority.NORMAL, new Runnable() {
                 @Override
                 public void run() {
                     setUserStyleSheet(cssPath);
@@ -689,6 +889,41 @@ public class WebView extends javax.swing.JPanel {
         }
     }
 
+    /**
+     * Releases the resources held by this component. Work still queued in the
+     * scheduler is cancelled, which completes the pending query futures and
+     * script executions with a cancellation, the WebView state listeners are removed, any
+     * loading activity is stopped and the loaded document is unloaded. The
+     * component must not be used after it has been disposed.
+     */
+    public void dispose() {
+        for (Priority priority : Priority.values()) {
+            scheduler.cancelAll(priority);
+        }
+
+        pendingNavigation.set(null);
+
+        stateListeners.clear();
+
+        if (Platform.isFxApplicationThread()) {
+            if (webViewController != null) {
+                WebEngine engine = webViewController.getWebView().getEngine();
+
+                engine.getLoadWorker().cancel();
+                engine.loadContent("");
+            }
+
+            fxPanel.setScene(null);
+        } else {
+            scheduler.submit(Priority.INTERACTIVE, new Runnable() {
+                @Override
+                public void run() {
+                    dispose();
+                }
+            });
+        }
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -711,7 +946,7 @@ public class WebView extends javax.swing.JPanel {
             .addGap(0, 300, Short.MAX_VALUE)
         );
     }// </editor-fold>//GEN-END:initComponents
-    boolean fxInitialized = false;
+    volatile boolean fxInitialized = false;
 
     /**
      * Returns whether JavaFX Thread has been initialized or not yet.
@@ -743,6 +978,8 @@ public class WebView extends javax.swing.JPanel {
                 Scene scene = new Scene((Parent) loader.getRoot());
                 fxPanel.setScene(scene);
 
+                observeState(webViewController.getWebView());
+
                 fxInitialized = true;
 
             } catch (IOException ex) {
@@ -764,4 +1001,293 @@ public class WebView extends javax.swing.JPanel {
             });
         }
     }
+
+    /**
+     * Registers the property listeners that keep the state snapshot of this
+     * component up to date. This method must be called only in the JavaFX
+     * thread.
+     *
+     * @param webView The JavaFX WebView widget to observe.
+     */
+    private void observeState(final javafx.scene.web.WebView webView) {
+        final WebEngine engine = webView.getEngine();
+        final Worker<Void> worker = engine.getLoadWorker();
+
+        publishState(new WebViewState(engine.getLocation(), engine.getTitle(),
+                worker.getState(), worker.getProgress(),
+                webView.isContextMenuEnabled(), engine.isJavaScriptEnabled()));
+
+        engine.locationProperty().addListener(new ChangeListener<String>() {
+            @Override
+            public void changed(ObservableValue<? extends String> observable,
+                    String oldValue, String newValue) {
+                publishState(state.get().withLocation(newValue));
+            }
+        });
+
+        engine.titleProperty().addListener(new ChangeListener<String>() {
+            @Override
+            public void changed(ObservableValue<? extends String> observable,
+                    String oldValue, String newValue) {
+                publishState(state.get().withTitle(newValue));
+            }
+        });
+
+        worker.stateProperty().addListener(new ChangeListener<State>() {
+            @Override
+            public void changed(ObservableValue<? extends State> observable,
+                    State oldValue, State newValue) {
+                publishState(state.get().withWorkerState(newValue));
+            }
+        });
+
+        worker.progressProperty().addListener(new ChangeListener<Number>() {
+            @Override
+            public void changed(ObservableValue<? extends Number> observable,
+                    Number oldValue, Number newValue) {
+                publishState(state.get().withProgress(newValue.doubleValue()));
+            }
+        });
+
+        webView.contextMenuEnabledProperty().addListener(
+                new ChangeListener<Boolean>() {
+                    @Override
+                    public void changed(
+                            ObservableValue<? extends Boolean> observable,
+                            Boolean oldValue, Boolean newValue) {
+                        publishState(state.get()
+                                .withContextMenuEnabled(newValue));
+                    }
+                });
+
+        engine.javaScriptEnabledProperty().addListener(
+                new ChangeListener<Boolean>() {
+                    @Override
+                    public void changed(
+                            ObservableValue<? extends Boolean> observable,
+                            Boolean oldValue, Boolean newValue) {
+                        publishState(state.get()
+                                .withJavaScriptEnabled(newValue));
+                    }
+                });
+    }
+
+    /**
+     * Publishes a new state snapshot and notifies the state listeners. Only
+     * the JavaFX thread writes the snapshot, so a plain swap is enough to keep
+     * readers on other threads consistent. A listener that throws is logged
+     * and does not keep the others from being notified.
+     *
+     * @param newState The snapshot to publish.
+     */
+    private void publishState(WebViewState newState) {
+        WebViewState oldState = state.getAndSet(newState);
+
+        for (WebViewStateListener listener : stateListeners) {
+            try {
+                listener.stateChanged(this, oldState, newState);
+            } catch (RuntimeException ex) {
+                Logger.getLogger(WebView.class.getName())
+                        .log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Executes a script in the loaded document. This method must be called
+     * only in the JavaFX thread.
+     *
+     * @param script The script to execute.
+     * @return The returned object from the WebEngine, or null if no document
+     * is loaded.
+     */
+    private Object evaluate(String script) {
+        WebEngine engine = getWebView().getEngine();
+
+        if (engine.getDocument() == null) {
+            return null;
+        }
+
+        return engine.executeScript(script);
+    }
+
+    /**
+     * Runs a query script in the loaded document and converts its result
+     * into rows. This method must be called only in the JavaFX thread.
+     *
+     * @param cssSelector The CSS selector to match elements with.
+     * @param fields The fields to extract from each element.
+     * @return The extracted rows.
+     */
+    private List<String[]> extract(String cssSelector, String[] fields) {
+        WebEngine engine = getWebView().getEngine();
+
+        if (engine.getDocument() == null) {
+            return new ArrayList<String[]>();
+        }
+
+        StringBuilder script = new StringBuilder(
+                "(function(s,f){"
+                + "var n=document.querySelectorAll(s),r=[],i,j,e,v;"
+                + "for(i=0;i<n.length;i++){e=n[i];for(j=0;j<f.length;j++){"
+                + "if(f[j]==='#text'){v=e.textContent;}"
+                + "else if(f[j]==='#html'){v=e.innerHTML;}"
+                + "else if(f[j]==='#tag'){v=e.tagName.toLowerCase();}"
+                + "else{v=e.getAttribute(f[j]);}"
+                + "r.push(v==null?null:String(v));}}return r;})(");
+
+        appendJsString(script, cssSelector);
+        script.append(",[");
+
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                script.append(',');
+            }
+            appendJsString(script, fields[i]);
+        }
+
+        script.append("])");
+
+        JSObject values = (JSObject) engine.executeScript(script.toString());
+        int length = ((Number) values.getMember("length")).intValue();
+        List<String[]> rows = new ArrayList<String[]>(length / fields.length);
+
+        for (int offset = 0; offset < length; offset += fields.length) {
+            String[] row = new String[fields.length];
+
+            for (int i = 0; i < fields.length; i++) {
+                Object value = values.getSlot(offset + i);
+                row[i] = value instanceof String ? (String) value : null;
+            }
+
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Appends the given value to a script as a quoted Javascript string
+     * literal.
+     */
+    private static void appendJsString(StringBuilder script, String value) {
+        script.append('\'');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '\'':
+                case '\\':
+                    script.append('\\').append(c);
+                    break;
+                case '\n':
+                    script.append("\\n");
+                    break;
+                case '\r':
+                    script.append("\\r");
+                    break;
+                case '\u2028':
+                    script.append("\\u2028");
+                    break;
+                case '\u2029':
+                    script.append("\\u2029");
+                    break;
+                default:
+                    script.append(c);
+            }
+        }
+
+        script.append('\'');
+    }
+
+    /**
+     * Queues a call in the given lane of the scheduler, or runs it right away
+     * in the JavaFX thread.
+     *
+     * @param priority The lane to queue the call in.
+     * @param callable The call to run.
+     * @return A future of the result. Cancelling it removes the call from the
+     * queue.
+     */
+    private <V> Future<V> submit(Priority priority, Callable<V> callable) {
+        QueuedCall<V> call = new QueuedCall<V>(callable);
+
+        if (Platform.isFxApplicationThread()) {
+            call.run();
+        } else {
+            call.task = scheduler.submit(priority, call);
+        }
+
+        return call;
+    }
+
+    /**
+     * A call queued in the scheduler. Cancelling it also removes it from the
+     * queue, and the scheduler cancels it when the queue is cleared, so its
+     * waiters are always released.
+     */
+    private static final class QueuedCall<V> extends FutureTask<V> {
+
+        private volatile FxScheduler.Task task;
+
+        private QueuedCall(Callable<V> callable) {
+            super(callable);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            FxScheduler.Task queued = task;
+
+            if (cancelled && queued != null) {
+                queued.cancel();
+            }
+
+            return cancelled;
+        }
+    }
+
+    /**
+     * Queues a navigation call in the normal lane and cancels the navigation
+     * call queued before it, if it has not been run yet. Its effect would be
+     * overridden by the new call anyway.
+     *
+     * @param navigation The navigation call to queue.
+     */
+    private void submitNavigation(Runnable navigation) {
+        NavigationCall call = new NavigationCall(navigation);
+
+        // Queuing and swapping under one lock keeps the queue order and the
+        // pending call in step when several threads navigate at once.
+        synchronized (pendingNavigation) {
+            call.task = scheduler.submit(Priority.NORMAL, call);
+
+            NavigationCall previous = pendingNavigation.getAndSet(call);
+
+            if (previous != null) {
+                previous.task.cancel();
+            }
+        }
+    }
+
+    /**
+     * A queued navigation call. It stops being the pending navigation as soon
+     * as it runs, so that it is not kept alive with the content it loads.
+     */
+    private final class NavigationCall implements Runnable {
+
+        private final Runnable navigation;
+        private FxScheduler.Task task;
+
+        private NavigationCall(Runnable navigation) {
+            this.navigation = navigation;
+        }
+
+        @Override
+        public void run() {
+            pendingNavigation.compareAndSet(this, null);
+            navigation.run();
+        }
+    }
 }
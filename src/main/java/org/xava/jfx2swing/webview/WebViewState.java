@@ -0,0 +1,139 @@
+package org.xava.jfx2swing.webview;
+
+import javafx.concurrent.Worker.State;
+
+/**
+ * An immutable snapshot of the state of the WebEngine enclosed by a
+ * {@link WebView}.
+ * <p>
+ * Snapshots are created on the JavaFX Thread whenever one of the observed
+ * engine properties changes, and are then published by the owning WebView so
+ * that they can be read from any thread without locking or dispatching to the
+ * JavaFX Thread. Every change produces a new instance; an instance never
+ * changes once it has been created.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public final class WebViewState {
+
+    /**
+     * The state reported before the JavaFX WebView widget has been
+     * initialized. It reflects the defaults of a fresh WebEngine.
+     */
+    public static final WebViewState INITIAL
+            = new WebViewState(null, null, State.READY, 0, true, true);
+
+    private final String location;
+    private final String title;
+    private final State workerState;
+    private final double progress;
+    private final boolean contextMenuEnabled;
+    private final boolean javaScriptEnabled;
+
+    WebViewState(String location, String title, State workerState,
+            double progress, boolean contextMenuEnabled,
+            boolean javaScriptEnabled) {
+        this.location = location;
+        this.title = title;
+        this.workerState = workerState;
+        this.progress = progress;
+        this.contextMenuEnabled = contextMenuEnabled;
+        this.javaScriptEnabled = javaScriptEnabled;
+    }
+
+    /**
+     * Gets the location of the currently loaded document.
+     *
+     * @return The location, or null if nothing has been loaded yet.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the title of the currently loaded document.
+     *
+     * @return The title, or null if the document has no title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the state of the engine's load worker.
+     *
+     * @return The load worker state.
+     */
+    public State getWorkerState() {
+        return workerState;
+    }
+
+    /**
+     * Gets the progress of the engine's load worker.
+     *
+     * @return The progress between 0 and 1, or -1 if it is indeterminate.
+     */
+    public double getProgress() {
+        return progress;
+    }
+
+    /**
+     * Gets whether context menu is enabled on the WebView widget.
+     *
+     * @return true if WebView's context menu is enabled, false if not.
+     */
+    public boolean isContextMenuEnabled() {
+        return contextMenuEnabled;
+    }
+
+    /**
+     * Gets whether Javascript is enabled in the WebView's engine.
+     *
+     * @return true if Javascript is enabled, false if not.
+     */
+    public boolean isJavaScriptEnabled() {
+        return javaScriptEnabled;
+    }
+
+    WebViewState withLocation(String location) {
+        return new WebViewState(location, title, workerState, progress,
+                contextMenuEnabled, javaScriptEnabled);
+    }
+
+    WebViewState withTitle(String title) {
+        return new WebViewState(location, title, workerState, progress,
+                contextMenuEnabled, javaScriptEnabled);
+    }
+
+    WebViewState withWorkerState(State workerState) {
+        return new WebViewState(location, title, workerState, progress,
+                contextMenuEnabled, javaScriptEnabled);
+    }
+
+    WebViewState withProgress(double progress) {
+        return new WebViewState(location, title, workerState, progress,
+                contextMenuEnabled, javaScriptEnabled);
+    }
+
+    WebViewState withContextMenuEnabled(boolean contextMenuEnabled) {
+        return new WebViewState(location, title, workerState, progress,
+                contextMenuEnabled, javaScriptEnabled);
+    }
+
+    WebViewState withJavaScriptEnabled(boolean javaScriptEnabled) {
+        return new WebViewState(location, title, workerState, progress,
+                contextMenuEnabled, javaScriptEnabled);
+    }
+
+    @Override
+    public String toString() {
+        return "WebViewState[location=" + location
+                + ", title=" + title
+                + ", workerState=" + workerState
+                + ", progress=" + progress
+                + ", contextMenuEnabled=" + contextMenuEnabled
+                + ", javaScriptEnabled=" + javaScriptEnabled + "]";
+    }
+}
@@ -0,0 +1,28 @@
+package org.xava.jfx2swing.webview;
+
+import java.util.EventListener;
+
+/**
+ * A listener notified whenever the state snapshot of a {@link WebView}
+ * changes.
+ * <p>
+ * Notifications are delivered on the JavaFX Thread, right after the new
+ * snapshot has been published. Implementations that update Swing components
+ * must hand the work over to the Event Dispatcher Thread themselves.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public interface WebViewStateListener extends EventListener {
+
+    /**
+     * Called when the state of the WebView changes.
+     *
+     * @param source The WebView whose state changed.
+     * @param oldState The previously published snapshot.
+     * @param newState The newly published snapshot.
+     */
+    void stateChanged(WebView source, WebViewState oldState,
+            WebViewState newState);
+}
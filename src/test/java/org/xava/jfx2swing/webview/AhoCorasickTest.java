@@ -0,0 +1,91 @@
+package org.xava.jfx2swing.webview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link AhoCorasick}.
+ *
+ * @author Alaa Sarhan
+ */
+public class AhoCorasickTest {
+
+    private static List<Integer> find(AhoCorasick automaton, String text) {
+        final List<Integer> found = new ArrayList<Integer>();
+
+        automaton.search(text, new AhoCorasick.Hit() {
+            @Override
+            public boolean found(int pattern) {
+                found.add(pattern);
+                return false;
+            }
+        });
+
+        return found;
+    }
+
+    @Test
+    public void findsAllOccurrencesIncludingOverlaps() {
+        AhoCorasick automaton = new AhoCorasick(
+                Arrays.asList("he", "she", "his", "hers"));
+
+        assertEquals(Arrays.asList(1, 0, 3), find(automaton, "ushers"));
+    }
+
+    @Test
+    public void findsPatternsReachedThroughFailureLinks() {
+        AhoCorasick automaton = new AhoCorasick(
+                Arrays.asList("abcd", "bc", "c"));
+
+        assertEquals(Arrays.asList(1, 2), find(automaton, "abcx"));
+    }
+
+    @Test
+    public void reportsRepeatedOccurrences() {
+        AhoCorasick automaton = new AhoCorasick(Arrays.asList("aa"));
+
+        assertEquals(Arrays.asList(0, 0, 0), find(automaton, "aaaa"));
+    }
+
+    @Test
+    public void ignoresEmptyPatterns() {
+        AhoCorasick automaton = new AhoCorasick(Arrays.asList("", "b"));
+
+        assertEquals(Arrays.asList(1), find(automaton, "abc"));
+    }
+
+    @Test
+    public void stopsWhenTheCallbackAsks() {
+        AhoCorasick automaton = new AhoCorasick(Arrays.asList("a", "b"));
+        final List<Integer> found = new ArrayList<Integer>();
+
+        boolean stopped = automaton.search("ab", new AhoCorasick.Hit() {
+            @Override
+            public boolean found(int pattern) {
+                found.add(pattern);
+                return true;
+            }
+        });
+
+        assertTrue(stopped);
+        assertEquals(Arrays.asList(0), found);
+    }
+
+    @Test
+    public void findsNothingWithoutPatterns() {
+        AhoCorasick automaton = new AhoCorasick(new ArrayList<String>());
+
+        assertFalse(automaton.search("anything", new AhoCorasick.Hit() {
+            @Override
+            public boolean found(int pattern) {
+                return true;
+            }
+        }));
+    }
+}
@@ -0,0 +1,184 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link ArchiveResourceProvider}.
+ *
+ * @author Alaa Sarhan
+ */
+public class ArchiveResourceProviderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String read(Resource resource) throws IOException {
+        InputStream in = resource.openStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+
+        try {
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+
+        return out.toString("UTF-8");
+    }
+
+    private File archive() throws IOException {
+        File file = folder.newFile("site.zip");
+        ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+
+        try {
+            zip.putNextEntry(new ZipEntry("web/"));
+            zip.closeEntry();
+
+            StringBuilder css = new StringBuilder();
+            for (int i = 0; i < 500; i++) {
+                css.append("p{margin:").append(i).append("px}");
+            }
+
+            zip.putNextEntry(new ZipEntry("web/css/main.css"));
+            zip.write(css.toString().getBytes("UTF-8"));
+            zip.closeEntry();
+
+            byte[] html = "<html></html>".getBytes("UTF-8");
+            CRC32 crc = new CRC32();
+            crc.update(html);
+
+            ZipEntry stored = new ZipEntry("web/index.html");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(html.length);
+            stored.setCrc(crc.getValue());
+            zip.putNextEntry(stored);
+            zip.write(html);
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("other.txt"));
+            zip.write("other".getBytes("UTF-8"));
+            zip.closeEntry();
+        } finally {
+            zip.close();
+        }
+
+        return file;
+    }
+
+    @Test
+    public void servesStoredAndDeflatedEntries() throws Exception {
+        ArchiveResourceProvider provider
+                = new ArchiveResourceProvider(archive());
+
+        Resource html = provider.getResource("web/index.html");
+        Resource css = provider.getResource("web/css/main.css");
+
+        assertEquals("<html></html>", read(html));
+        assertEquals(13, html.getContentLength());
+        assertTrue(read(css).endsWith("p{margin:499px}"));
+        assertEquals(read(css).length(), css.getContentLength());
+        assertTrue(css.getLastModified() > 0);
+        assertEquals("other", read(provider.getResource("other.txt")));
+    }
+
+    @Test
+    public void servesEntriesUnderTheRoot() throws Exception {
+        ArchiveResourceProvider provider
+                = new ArchiveResourceProvider(archive(), "/web/");
+
+        assertEquals("<html></html>",
+                read(provider.getResource("index.html")));
+        assertNull(provider.getResource("other.txt"));
+        assertNull(provider.getResource(""));
+    }
+
+    @Test
+    public void skipsEncryptedEntries() throws Exception {
+        File file = archive();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+        try {
+            // Set the encryption flag of the first central directory entry
+            // matching "other.txt".
+            byte[] data = new byte[(int) raf.length()];
+            raf.readFully(data);
+
+            for (int i = data.length - 46; i >= 0; i--) {
+                if (data[i] == 0x50 && data[i + 1] == 0x4b
+                        && data[i + 2] == 0x01 && data[i + 3] == 0x02
+                        && new String(data, i + 46, 9, "UTF-8")
+                        .equals("other.txt")) {
+                    raf.seek(i + 8);
+                    raf.write(data[i + 8] | 1);
+                    break;
+                }
+            }
+        } finally {
+            raf.close();
+        }
+
+        ArchiveResourceProvider provider = new ArchiveResourceProvider(file);
+
+        assertNull(provider.getResource("other.txt"));
+        assertEquals("<html></html>",
+                read(provider.getResource("web/index.html")));
+    }
+
+    @Test(expected = ZipException.class)
+    public void rejectsNamesRunningPastTheArchive() throws Exception {
+        File file = archive();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+        try {
+            byte[] data = new byte[(int) raf.length()];
+            raf.readFully(data);
+
+            for (int i = data.length - 46; i >= 0; i--) {
+                if (data[i] == 0x50 && data[i + 1] == 0x4b
+                        && data[i + 2] == 0x01 && data[i + 3] == 0x02) {
+                    raf.seek(i + 28);
+                    raf.write(0xFF);
+                    raf.write(0xFF);
+                    break;
+                }
+            }
+        } finally {
+            raf.close();
+        }
+
+        new ArchiveResourceProvider(file);
+    }
+
+    @Test(expected = ZipException.class)
+    public void rejectsFilesThatAreNotArchives() throws Exception {
+        File file = folder.newFile("plain.txt");
+        FileOutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(new byte[64]);
+        } finally {
+            out.close();
+        }
+
+        new ArchiveResourceProvider(file);
+    }
+}
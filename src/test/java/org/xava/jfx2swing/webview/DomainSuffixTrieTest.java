@@ -0,0 +1,51 @@
+package org.xava.jfx2swing.webview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link DomainSuffixTrie}.
+ *
+ * @author Alaa Sarhan
+ */
+public class DomainSuffixTrieTest {
+
+    private DomainSuffixTrie trie;
+
+    @Before
+    public void setUp() {
+        trie = new DomainSuffixTrie();
+        trie.add("example.com");
+        trie.add("ads.other.org");
+    }
+
+    @Test
+    public void matchesTheDomainItself() {
+        assertTrue(trie.matches("example.com"));
+        assertTrue(trie.matches("ads.other.org"));
+    }
+
+    @Test
+    public void matchesSubDomains() {
+        assertTrue(trie.matches("www.example.com"));
+        assertTrue(trie.matches("a.b.ads.other.org"));
+    }
+
+    @Test
+    public void respectsLabelBoundaries() {
+        assertFalse(trie.matches("badexample.com"));
+        assertFalse(trie.matches("example.com.evil.net"));
+        assertFalse(trie.matches("other.org"));
+        assertFalse(trie.matches("com"));
+    }
+
+    @Test
+    public void ignoresEmptyDomains() {
+        trie.add("");
+
+        assertFalse(trie.matches("anything.net"));
+    }
+}
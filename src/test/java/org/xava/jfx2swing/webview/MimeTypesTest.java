@@ -0,0 +1,40 @@
+package org.xava.jfx2swing.webview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link MimeTypes}.
+ *
+ * @author Alaa Sarhan
+ */
+public class MimeTypesTest {
+
+    @Test
+    public void mapsKnownExtensions() {
+        assertEquals("text/html", MimeTypes.forName("index.html"));
+        assertEquals("text/css", MimeTypes.forName("css/main.css"));
+        assertEquals("application/javascript",
+                MimeTypes.forName("js/app.js"));
+        assertEquals("image/svg+xml", MimeTypes.forName("logo.svg"));
+        assertEquals("font/woff2", MimeTypes.forName("fonts/a.woff2"));
+    }
+
+    @Test
+    public void ignoresExtensionCase() {
+        assertEquals("image/png", MimeTypes.forName("IMAGE.PNG"));
+    }
+
+    @Test
+    public void sendsNoCharset() {
+        assertEquals(-1, MimeTypes.forName("page.htm").indexOf("charset"));
+    }
+
+    @Test
+    public void fallsBackToOctetStream() {
+        assertEquals(MimeTypes.DEFAULT, MimeTypes.forName("data.unknownext"));
+        assertEquals(MimeTypes.DEFAULT, MimeTypes.forName("no-extension"));
+        assertEquals(MimeTypes.DEFAULT, MimeTypes.forName("dir.d/file"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests {@link ResourceProtocol}.
+ *
+ * @author Alaa Sarhan
+ */
+public class ResourceProtocolTest {
+
+    @Test
+    public void normalizesPaths() {
+        assertEquals("a/b.css", ResourceProtocol.normalizePath("/a//./b.css"));
+        assertEquals("a/b", ResourceProtocol.normalizePath("a/b/"));
+        assertEquals("", ResourceProtocol.normalizePath("/"));
+    }
+
+    @Test
+    public void rejectsPathsEscapingTheRoot() {
+        assertNull(ResourceProtocol.normalizePath("../secret"));
+        assertNull(ResourceProtocol.normalizePath("a/../../b"));
+        assertNull(ResourceProtocol.normalizePath("a\\b"));
+    }
+
+    @Test
+    public void decodesPaths() {
+        assertEquals("/my file#1.css",
+                ResourceProtocol.decodePath("/my%20file%231.css"));
+        assertEquals("/a+b", ResourceProtocol.decodePath("/a+b"));
+        assertNull(ResourceProtocol.decodePath("/100%"));
+    }
+
+    @Test
+    public void servesRegisteredBuffers() throws Exception {
+        BufferResourceProvider provider = new BufferResourceProvider();
+        provider.put("my file#1.css", ByteBuffer.wrap("body{}".getBytes("UTF-8")));
+        provider.put("100%.txt", ByteBuffer.wrap("x".getBytes("UTF-8")));
+        ResourceProtocol.register("test-buffers", provider);
+
+        URL url = ResourceProtocol.createURL("test-buffers", "my file#1.css");
+        URLConnection connection = url.openConnection();
+
+        assertEquals("/my%20file%231.css", url.getPath());
+        assertEquals("text/css", connection.getContentType());
+        assertEquals(6, connection.getContentLength());
+        assertEquals("max-age=3600",
+                connection.getHeaderField("cache-control"));
+
+        InputStream in = connection.getInputStream();
+        byte[] content = new byte[16];
+        int read = in.read(content);
+        in.close();
+
+        assertEquals("body{}", new String(content, 0, read, "UTF-8"));
+        assertEquals(1, ResourceProtocol.createURL("test-buffers", "100%.txt")
+                .openConnection().getContentLength());
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void failsForMissingResources() throws Exception {
+        ResourceProtocol.register("test-empty", new BufferResourceProvider());
+
+        ResourceProtocol.createURL("test-empty", "missing.js")
+                .openConnection().connect();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullHosts() throws Exception {
+        ResourceProtocol.createURL(null, "a.css");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullPaths() throws Exception {
+        ResourceProtocol.createURL("host", null);
+    }
+}
@@ -0,0 +1,186 @@
+package org.xava.jfx2swing.webview;
+
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link UrlRuleFilter}.
+ *
+ * @author Alaa Sarhan
+ */
+public class UrlRuleFilterTest {
+
+    private static boolean blocks(UrlRuleFilter filter, String url)
+            throws MalformedURLException {
+        return filter.isBlocked(new URL(url));
+    }
+
+    @Test
+    public void blocksDomainsAndTheirSubDomains() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("||doubleclick.net^");
+
+        assertTrue(blocks(filter, "http://doubleclick.net/"));
+        assertTrue(blocks(filter, "https://ad.DoubleClick.net/x?y"));
+        assertFalse(blocks(filter, "http://notdoubleclick.net/"));
+    }
+
+    @Test
+    public void anchorsDomainPatternsOnLabelBoundaries() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("||example.com/ads");
+
+        assertTrue(blocks(filter, "http://example.com/ads/x"));
+        assertTrue(blocks(filter, "http://sub.example.com/ads"));
+        assertTrue(blocks(filter, "http://user@example.com/ads"));
+        assertTrue(blocks(filter, "http://user:pw@example.com/ads/x"));
+        assertTrue(blocks(filter, "http://example.com:8080/ads"));
+        assertTrue(filter.isBlocked("http://user:pw@example.com:80/ads"));
+        assertFalse(filter.isBlocked("http://example.com@bad.com/ads"));
+        assertFalse(blocks(filter, "http://badexample.com/ads/x"));
+        assertFalse(blocks(filter, "http://example.com/x/ads"));
+    }
+
+    @Test
+    public void dropsResourceTypeOptions() throws Exception {
+        UrlRuleFilter filter
+                = UrlRuleFilter.parse("||tracker.com^$script,image,important");
+
+        assertEquals(0, filter.getSkippedRuleCount());
+        assertTrue(blocks(filter, "http://tracker.com/a"));
+        assertTrue(blocks(filter, "http://a.tracker.com:8080/"));
+    }
+
+    @Test
+    public void skipsRulesWithScopeNarrowingOptions() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse(
+                "||facebook.com^$third-party",
+                "||a.com^$~third-party",
+                "/ads/$domain=foo.com",
+                "||b.com^$popup",
+                "||c.com^$document",
+                "||d.com^$badfilter",
+                "||e.com^$script,unknown-option");
+
+        assertEquals(7, filter.getSkippedRuleCount());
+        assertFalse(blocks(filter, "https://www.facebook.com/"));
+        assertFalse(blocks(filter, "http://x.com/ads/1"));
+        assertFalse(blocks(filter, "http://e.com/"));
+    }
+
+    @Test
+    public void skipsRegularExpressionsEndingWithDollar() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("/ads$/", "/ad[0-9]/$image");
+
+        assertEquals(2, filter.getSkippedRuleCount());
+        assertFalse(blocks(filter, "http://x.com/ads/1"));
+    }
+
+    @Test
+    public void matchesSeparators() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("/banner^");
+
+        assertTrue(blocks(filter, "http://site.com/banner/1"));
+        assertTrue(blocks(filter, "http://site.com/banner?x=1"));
+        assertTrue(blocks(filter, "http://site.com/banner"));
+        assertFalse(blocks(filter, "http://site.com/bannerx"));
+        assertFalse(blocks(filter, "http://site.com/banner.png"));
+    }
+
+    @Test
+    public void matchesSubstrings() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("/analytics.js");
+
+        assertTrue(blocks(filter, "http://x.com/js/ANALYTICS.js?v=2"));
+        assertFalse(blocks(filter, "http://x.com/js/app.js"));
+    }
+
+    @Test
+    public void matchesWildcards() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("ads*banner", "*");
+
+        assertTrue(blocks(filter, "http://x.com/ads/big/banner.png"));
+
+        filter = UrlRuleFilter.parse("ads*banner");
+
+        assertFalse(blocks(filter, "http://x.com/banner/ads"));
+    }
+
+    @Test
+    public void matchesWildcardsWithRepeatedLiterals() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("track*pixel^");
+
+        assertTrue(blocks(filter,
+                "http://x.com/track/track/track/a/pixel?track=1"));
+        assertFalse(blocks(filter,
+                "http://x.com/track/track/track/pixels?track=1"));
+    }
+
+    @Test
+    public void matchesWildcardsWithoutLiterals() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("*^");
+
+        assertTrue(blocks(filter, "http://x.com/"));
+    }
+
+    @Test
+    public void matchesDomainPatternsWithWildcards() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse("||cdn.net^*.js");
+
+        assertTrue(blocks(filter, "http://cdn.net/lib/a.js"));
+        assertFalse(blocks(filter, "http://cdn.net/a.css"));
+    }
+
+    @Test
+    public void skipsUnsupportedRules() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse(
+                "[Adblock Plus 2.0]",
+                "! comment",
+                "",
+                "@@||good.com^",
+                "example.org##.ad",
+                "example.org#@#.ad",
+                "|http://x.y",
+                "end|",
+                "/re[gx]/",
+                "||ads*.foo.com^");
+
+        assertEquals(7, filter.getSkippedRuleCount());
+        assertFalse(blocks(filter, "http://good.com/"));
+        assertFalse(blocks(filter, "http://x.y/"));
+    }
+
+    @Test
+    public void parsesReaders() throws Exception {
+        UrlRuleFilter filter = UrlRuleFilter.parse(
+                new StringReader("||a.com^\n/b.js\n"));
+
+        assertTrue(blocks(filter, "http://a.com/"));
+        assertTrue(blocks(filter, "http://c.com/b.js"));
+    }
+
+    @Test
+    public void compilesRulesFromCollections() throws Exception {
+        UrlRuleFilter filter = new UrlRuleFilter(
+                Arrays.asList("a.com"), Arrays.asList("/x/"),
+                Arrays.asList("y*z"));
+
+        assertTrue(blocks(filter, "http://www.a.com/"));
+        assertTrue(blocks(filter, "http://b.com/x/"));
+        assertTrue(blocks(filter, "http://b.com/y/z"));
+        assertFalse(blocks(filter, "http://b.com/z/y"));
+    }
+
+    @Test
+    public void emptyFilterBlocksNothing() throws Exception {
+        assertFalse(blocks(UrlRuleFilter.empty(), "http://a.com/"));
+        assertFalse(blocks(UrlRuleFilter.parse(
+                Collections.<String>emptyList()), "http://a.com/"));
+    }
+}
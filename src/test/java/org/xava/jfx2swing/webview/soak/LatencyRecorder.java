@@ -0,0 +1,59 @@
+package org.xava.jfx2swing.webview.soak;
+
+import java.util.Arrays;
+
+/**
+ * Records latency samples and computes their percentiles.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count = 0;
+
+    /**
+     * Records a sample.
+     *
+     * @param nanos The latency, in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+
+        samples[count++] = nanos;
+    }
+
+    /**
+     * Gets the number of recorded samples.
+     *
+     * @return The sample count.
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets a percentile of the recorded samples, using the nearest-rank
+     * method.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The percentile, in milliseconds, or 0 if nothing was recorded.
+     */
+    public synchronized double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile / 100d * count);
+        rank = Math.min(count, Math.max(1, rank));
+
+        return sorted[rank - 1] / 1000000d;
+    }
+}
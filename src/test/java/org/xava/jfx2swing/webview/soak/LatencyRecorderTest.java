@@ -0,0 +1,54 @@
+package org.xava.jfx2swing.webview.soak;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link LatencyRecorder}.
+ *
+ * @author Alaa Sarhan
+ */
+public class LatencyRecorderTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void reportsZeroWithoutSamples() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        assertEquals(0, recorder.getCount());
+        assertEquals(0, recorder.getPercentileMillis(99), DELTA);
+    }
+
+    @Test
+    public void computesNearestRankPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        // Recorded out of order, 1 to 100 milliseconds.
+        for (int i = 100; i >= 1; i--) {
+            recorder.record(i * 1000000L);
+        }
+
+        assertEquals(100, recorder.getCount());
+        assertEquals(1, recorder.getPercentileMillis(0), DELTA);
+        assertEquals(50, recorder.getPercentileMillis(50), DELTA);
+        assertEquals(90, recorder.getPercentileMillis(90), DELTA);
+        assertEquals(99, recorder.getPercentileMillis(99), DELTA);
+        assertEquals(100, recorder.getPercentileMillis(100), DELTA);
+    }
+
+    @Test
+    public void growsBeyondTheInitialCapacity() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        for (int i = 0; i < 5000; i++) {
+            recorder.record(2000000L);
+        }
+        recorder.record(9000000L);
+
+        assertEquals(5001, recorder.getCount());
+        assertEquals(2, recorder.getPercentileMillis(99), DELTA);
+        assertEquals(9, recorder.getPercentileMillis(100), DELTA);
+    }
+}
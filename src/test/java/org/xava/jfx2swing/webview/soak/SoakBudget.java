@@ -0,0 +1,90 @@
+package org.xava.jfx2swing.webview.soak;
+
+/**
+ * The limits a soak run must stay within. A negative limit is not checked.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class SoakBudget {
+
+    private long maxRetainedBytesPerInstance = -1;
+    private double maxFxQueueP99Millis = -1;
+    private double maxScriptP99Millis = -1;
+    private int maxLeakedInstances = -1;
+
+    /**
+     * Gets the maximum heap retained by a loaded WebView instance.
+     *
+     * @return The limit, in bytes.
+     */
+    public long getMaxRetainedBytesPerInstance() {
+        return maxRetainedBytesPerInstance;
+    }
+
+    /**
+     * Sets the maximum heap retained by a loaded WebView instance.
+     *
+     * @param bytes The limit, in bytes.
+     */
+    public void setMaxRetainedBytesPerInstance(long bytes) {
+        this.maxRetainedBytesPerInstance = bytes;
+    }
+
+    /**
+     * Gets the maximum 99th percentile of the JavaFX Thread queue latency.
+     *
+     * @return The limit, in milliseconds.
+     */
+    public double getMaxFxQueueP99Millis() {
+        return maxFxQueueP99Millis;
+    }
+
+    /**
+     * Sets the maximum 99th percentile of the JavaFX Thread queue latency.
+     *
+     * @param millis The limit, in milliseconds.
+     */
+    public void setMaxFxQueueP99Millis(double millis) {
+        this.maxFxQueueP99Millis = millis;
+    }
+
+    /**
+     * Gets the maximum 99th percentile of the script round-trip time.
+     *
+     * @return The limit, in milliseconds.
+     */
+    public double getMaxScriptP99Millis() {
+        return maxScriptP99Millis;
+    }
+
+    /**
+     * Sets the maximum 99th percentile of the script round-trip time.
+     *
+     * @param millis The limit, in milliseconds.
+     */
+    public void setMaxScriptP99Millis(double millis) {
+        this.maxScriptP99Millis = millis;
+    }
+
+    /**
+     * Gets the maximum number of WebView instances still reachable after
+     * they were disposed.
+     *
+     * @return The limit.
+     */
+    public int getMaxLeakedInstances() {
+        return maxLeakedInstances;
+    }
+
+    /**
+     * Sets the maximum number of WebView instances still reachable after
+     * they were disposed.
+     *
+     * @param count The limit.
+     */
+    public void setMaxLeakedInstances(int count) {
+        this.maxLeakedInstances = count;
+    }
+}
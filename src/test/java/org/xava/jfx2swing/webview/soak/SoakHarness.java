@@ -0,0 +1,352 @@
+package org.xava.jfx2swing.webview.soak;
+
+import java.awt.GridLayout;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import javafx.application.Platform;
+import javafx.concurrent.Worker.State;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import org.xava.jfx2swing.webview.WebView;
+
+/**
+ * A scale and soak harness for the {@link WebView} component.
+ * <p>
+ * The harness repeatedly creates a number of WebView instances, loads a
+ * document into each of them, runs scripts against them and disposes them.
+ * Along the run it records:
+ * <ul>
+ * <li>The heap retained by a loaded instance.</li>
+ * <li>The latency of the JavaFX Thread queue, sampled every 10
+ * milliseconds.</li>
+ * <li>The round-trip time of the executed scripts.</li>
+ * <li>The number of instances still reachable after being disposed.</li>
+ * </ul>
+ * The measurements are returned as a {@link SoakReport} which can be checked
+ * against a {@link SoakBudget}.
+ * <p>
+ * The instances are hosted in a frame that is never shown. JavaFX still
+ * needs a display to initialize, so on build servers the harness should be
+ * run under a virtual display such as Xvfb. Note that the retained heap does
+ * not include the native memory used by WebKit.
+ * <p>
+ * <h3>Running</h3>
+ * The harness is run by {@link SoakTest} with the <code>soak</code> Maven
+ * profile, which fails the build when the budget is exceeded.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class SoakHarness {
+
+    private interface Condition {
+
+        boolean isMet();
+    }
+
+    private int instances = 10;
+    private int cycles = 5;
+    private int scriptsPerInstance = 20;
+    private long timeoutMillis = 30000;
+    private String script = "document.getElementsByTagName('p').length";
+    private String content = defaultContent();
+
+    /**
+     * Sets the number of WebView instances created in each cycle.
+     *
+     * @param instances The instance count.
+     */
+    public void setInstances(int instances) {
+        this.instances = instances;
+    }
+
+    /**
+     * Sets the number of create, load, script and dispose cycles.
+     *
+     * @param cycles The cycle count.
+     */
+    public void setCycles(int cycles) {
+        this.cycles = cycles;
+    }
+
+    /**
+     * Sets the number of scripts executed against each instance in each
+     * cycle.
+     *
+     * @param scriptsPerInstance The script count.
+     */
+    public void setScriptsPerInstance(int scriptsPerInstance) {
+        this.scriptsPerInstance = scriptsPerInstance;
+    }
+
+    /**
+     * Sets how long each step of a cycle may take before the run fails.
+     *
+     * @param timeoutMillis The timeout, in milliseconds.
+     */
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Sets the script executed against the instances.
+     *
+     * @param script The script.
+     */
+    public void setScript(String script) {
+        this.script = script;
+    }
+
+    /**
+     * Sets the HTML content loaded into the instances.
+     *
+     * @param content The HTML content.
+     */
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    /**
+     * Runs the soak test.
+     *
+     * @return The measurements of the run.
+     * @throws InterruptedException
+     * @throws InvocationTargetException if creating or disposing the
+     * instances on the Event Dispatcher Thread failed.
+     * @throws TimeoutException if a step of a cycle did not finish in time.
+     */
+    public SoakReport run() throws InterruptedException,
+            InvocationTargetException, TimeoutException {
+        final LatencyRecorder fxQueueLatency = new LatencyRecorder();
+        final LatencyRecorder scriptLatency = new LatencyRecorder();
+        final List<WeakReference<WebView>> disposed
+                = new ArrayList<WeakReference<WebView>>();
+        final JFrame frame = createFrame();
+        Thread sampler = startSampler(fxQueueLatency);
+        long retained = 0;
+
+        try {
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                long before = usedHeap();
+                final List<WebView> views = createViews(frame);
+
+                waitFor(new Condition() {
+                    @Override
+                    public boolean isMet() {
+                        for (WebView view : views) {
+                            if (!view.isFXInitialized()) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }, "JavaFX initialization");
+
+                for (WebView view : views) {
+                    view.loadContent(content);
+                }
+
+                waitFor(new Condition() {
+                    @Override
+                    public boolean isMet() {
+                        for (WebView view : views) {
+                            State state = view.getState().getWorkerState();
+
+                            if (state == State.FAILED
+                                    || state == State.CANCELLED) {
+                                throw new IllegalStateException(
+                                        "Loading failed: " + state);
+                            }
+
+                            if (state != State.SUCCEEDED) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }, "content loading");
+
+                retained = Math.max(retained,
+                        (usedHeap() - before) / Math.max(1, instances));
+
+                for (int i = 0; i < scriptsPerInstance; i++) {
+                    for (WebView view : views) {
+                        long started = System.nanoTime();
+                        view.executeScript(script, timeoutMillis);
+                        scriptLatency.record(System.nanoTime() - started);
+                    }
+                }
+
+                disposeViews(frame, views);
+
+                for (WebView view : views) {
+                    disposed.add(new WeakReference<WebView>(view));
+                }
+                views.clear();
+            }
+        } finally {
+            sampler.interrupt();
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    frame.dispose();
+                }
+            });
+        }
+
+        return new SoakReport(instances, cycles, retained, fxQueueLatency,
+                scriptLatency, countLeaked(disposed));
+    }
+
+    private JFrame createFrame() throws InterruptedException,
+            InvocationTargetException {
+        final JFrame[] frame = new JFrame[1];
+
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                frame[0] = new JFrame();
+                frame[0].getContentPane().setLayout(new GridLayout(0,
+                        (int) Math.ceil(Math.sqrt(Math.max(1, instances)))));
+            }
+        });
+
+        return frame[0];
+    }
+
+    /**
+     * Creates the instances of a cycle and makes them displayable, which
+     * initializes their JavaFX WebView widgets.
+     */
+    private List<WebView> createViews(final JFrame frame)
+            throws InterruptedException, InvocationTargetException {
+        final List<WebView> views = new ArrayList<WebView>();
+
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < instances; i++) {
+                    WebView view = new WebView();
+                    frame.getContentPane().add(view);
+                    views.add(view);
+                }
+
+                frame.pack();
+            }
+        });
+
+        return views;
+    }
+
+    private void disposeViews(final JFrame frame, final List<WebView> views)
+            throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (WebView view : views) {
+                    view.dispose();
+                    frame.getContentPane().remove(view);
+                }
+
+                frame.getContentPane().validate();
+            }
+        });
+    }
+
+    /**
+     * Starts a thread that measures how long the JavaFX Thread takes to run
+     * a task posted to its queue, every 10 milliseconds.
+     */
+    private Thread startSampler(final LatencyRecorder recorder) {
+        Thread sampler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    final long posted = System.nanoTime();
+
+                    Platform.runLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            recorder.record(System.nanoTime() - posted);
+                        }
+                    });
+
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }
+        }, "soak-fx-queue-sampler");
+
+        sampler.setDaemon(true);
+        sampler.start();
+
+        return sampler;
+    }
+
+    private void waitFor(Condition condition, String step)
+            throws InterruptedException, TimeoutException {
+        long started = System.currentTimeMillis();
+
+        while (!condition.isMet()) {
+            if (System.currentTimeMillis() - started > timeoutMillis) {
+                throw new TimeoutException(step + " timed out.");
+            }
+
+            Thread.sleep(10);
+        }
+    }
+
+    private int countLeaked(List<WeakReference<WebView>> disposed)
+            throws InterruptedException {
+        int leaked = 0;
+
+        for (int attempt = 0; attempt < 5; attempt++) {
+            usedHeap();
+            leaked = 0;
+
+            for (WeakReference<WebView> reference : disposed) {
+                if (reference.get() != null) {
+                    leaked++;
+                }
+            }
+
+            if (leaked == 0) {
+                break;
+            }
+
+            Thread.sleep(200);
+        }
+
+        return leaked;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String defaultContent() {
+        StringBuilder html = new StringBuilder(
+                "<html><head><title>Soak</title></head><body>");
+
+        for (int i = 0; i < 200; i++) {
+            html.append("<p class=\"item\" data-index=\"").append(i)
+                    .append("\">Paragraph ").append(i).append("</p>");
+        }
+
+        return html.append("</body></html>").toString();
+    }
+}
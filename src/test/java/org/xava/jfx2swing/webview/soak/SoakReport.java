@@ -0,0 +1,133 @@
+package org.xava.jfx2swing.webview.soak;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The measurements of a soak run.
+ *
+ * @author Alaa Sarhan
+ *
+ * @version 1.0
+ */
+public class SoakReport {
+
+    private final int instances;
+    private final int cycles;
+    private final long retainedBytesPerInstance;
+    private final LatencyRecorder fxQueueLatency;
+    private final LatencyRecorder scriptLatency;
+    private final int leakedInstances;
+
+    SoakReport(int instances, int cycles, long retainedBytesPerInstance,
+            LatencyRecorder fxQueueLatency, LatencyRecorder scriptLatency,
+            int leakedInstances) {
+        this.instances = instances;
+        this.cycles = cycles;
+        this.retainedBytesPerInstance = retainedBytesPerInstance;
+        this.fxQueueLatency = fxQueueLatency;
+        this.scriptLatency = scriptLatency;
+        this.leakedInstances = leakedInstances;
+    }
+
+    /**
+     * Gets the largest heap retained by a loaded WebView instance over all
+     * the cycles.
+     *
+     * @return The retained heap, in bytes.
+     */
+    public long getRetainedBytesPerInstance() {
+        return retainedBytesPerInstance;
+    }
+
+    /**
+     * Gets the JavaFX Thread queue latency samples.
+     *
+     * @return The latency recorder.
+     */
+    public LatencyRecorder getFxQueueLatency() {
+        return fxQueueLatency;
+    }
+
+    /**
+     * Gets the script round-trip time samples.
+     *
+     * @return The latency recorder.
+     */
+    public LatencyRecorder getScriptLatency() {
+        return scriptLatency;
+    }
+
+    /**
+     * Gets the number of WebView instances still reachable after they were
+     * disposed.
+     *
+     * @return The leaked instance count.
+     */
+    public int getLeakedInstances() {
+        return leakedInstances;
+    }
+
+    /**
+     * Checks the measurements against the given budget.
+     *
+     * @param budget The budget to check.
+     * @return A description of every exceeded limit. Empty if the run stayed
+     * within the budget.
+     */
+    public List<String> check(SoakBudget budget) {
+        List<String> violations = new ArrayList<String>();
+
+        if (budget.getMaxRetainedBytesPerInstance() >= 0
+                && retainedBytesPerInstance
+                > budget.getMaxRetainedBytesPerInstance()) {
+            violations.add("Retained heap per instance "
+                    + retainedBytesPerInstance + " bytes exceeds "
+                    + budget.getMaxRetainedBytesPerInstance() + " bytes");
+        }
+
+        double fxQueueP99 = fxQueueLatency.getPercentileMillis(99);
+
+        if (budget.getMaxFxQueueP99Millis() >= 0
+                && fxQueueP99 > budget.getMaxFxQueueP99Millis()) {
+            violations.add("FX queue latency p99 " + fxQueueP99
+                    + " ms exceeds " + budget.getMaxFxQueueP99Millis() + " ms");
+        }
+
+        double scriptP99 = scriptLatency.getPercentileMillis(99);
+
+        if (budget.getMaxScriptP99Millis() >= 0
+                && scriptP99 > budget.getMaxScriptP99Millis()) {
+            violations.add("Script round-trip p99 " + scriptP99
+                    + " ms exceeds " + budget.getMaxScriptP99Millis() + " ms");
+        }
+
+        if (budget.getMaxLeakedInstances() >= 0
+                && leakedInstances > budget.getMaxLeakedInstances()) {
+            violations.add("Leaked instances " + leakedInstances
+                    + " exceeds " + budget.getMaxLeakedInstances());
+        }
+
+        return violations;
+    }
+
+    @Override
+    public String toString() {
+        return "Soak run of " + instances + " instances x " + cycles
+                + " cycles\n"
+                + "  retained heap per instance: "
+                + retainedBytesPerInstance / 1024 + " KB\n"
+                + "  FX queue latency ms: " + percentiles(fxQueueLatency) + "\n"
+                + "  script round-trip ms: " + percentiles(scriptLatency) + "\n"
+                + "  leaked instances: " + leakedInstances;
+    }
+
+    private static String percentiles(LatencyRecorder recorder) {
+        return String.format("p50=%.2f p90=%.2f p99=%.2f max=%.2f (n=%d)",
+                recorder.getPercentileMillis(50),
+                recorder.getPercentileMillis(90),
+                recorder.getPercentileMillis(99),
+                recorder.getPercentileMillis(100),
+                recorder.getCount());
+    }
+}
@@ -0,0 +1,63 @@
+package org.xava.jfx2swing.webview.soak;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link SoakHarness} and fails when the budget is exceeded.
+ * <p>
+ * The test only runs when the <code>soak</code> system property is true, as
+ * set by the <code>soak</code> Maven profile. Its settings and budget are
+ * read from system properties:
+ * <ul>
+ * <li><code>soak.instances</code>: instances per cycle, 10 by default.</li>
+ * <li><code>soak.cycles</code>: number of cycles, 5 by default.</li>
+ * <li><code>soak.scripts</code>: scripts per instance and cycle, 20 by
+ * default.</li>
+ * <li><code>soak.timeout</code>: timeout of each step in milliseconds, 30000
+ * by default.</li>
+ * <li><code>soak.maxRetainedKB</code>, <code>soak.maxFxQueueP99</code>,
+ * <code>soak.maxScriptP99</code>: budget limits in KB and milliseconds, not
+ * checked by default.</li>
+ * <li><code>soak.maxLeaked</code>: maximum leaked instances, 0 by
+ * default.</li>
+ * </ul>
+ *
+ * @author Alaa Sarhan
+ */
+public class SoakTest {
+
+    @Test
+    public void staysWithinBudget() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("soak"));
+
+        SoakHarness harness = new SoakHarness();
+        harness.setInstances(Integer.getInteger("soak.instances", 10));
+        harness.setCycles(Integer.getInteger("soak.cycles", 5));
+        harness.setScriptsPerInstance(Integer.getInteger("soak.scripts", 20));
+        harness.setTimeoutMillis(Long.getLong("soak.timeout", 30000));
+
+        SoakBudget budget = new SoakBudget();
+        budget.setMaxRetainedBytesPerInstance(
+                Long.getLong("soak.maxRetainedKB", -1) * 1024);
+        budget.setMaxFxQueueP99Millis(Double.parseDouble(
+                System.getProperty("soak.maxFxQueueP99", "-1")));
+        budget.setMaxScriptP99Millis(Double.parseDouble(
+                System.getProperty("soak.maxScriptP99", "-1")));
+        budget.setMaxLeakedInstances(Integer.getInteger("soak.maxLeaked", 0));
+
+        SoakReport report = harness.run();
+        List<String> violations = report.check(budget);
+
+        Logger.getLogger(SoakTest.class.getName()).log(Level.INFO, "{0}",
+                report);
+
+        assertTrue("Budget exceeded: " + violations + "\n" + report,
+                violations.isEmpty());
+    }
+}